@@ -0,0 +1,154 @@
+package com.thainh.taskmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * insert rate of task rows with the statements hibernate sends for each id strategy:
+ * identity (one insert returning the id per row) against a pooled-lo sequence
+ * (one nextval per 50 rows), row by row and in jdbc batches.
+ * needs the database of application.properties, or SPRING_DATASOURCE_URL/USERNAME/PASSWORD.
+ * rows go to temporary tables, the schema is not touched
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+
+    private static final int ALLOCATION_SIZE = 50;
+    private static final String COLUMNS = "title, description, user_id, category, status, created_at";
+
+    @Param({"1000"})
+    private int rows;
+
+    private Connection connection;
+    private long nextId;
+    private long lastId;
+
+    @Setup
+    public void setup() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", env("SPRING_DATASOURCE_USERNAME", "postgres"));
+        properties.setProperty("password", env("SPRING_DATASOURCE_PASSWORD", "postgres"));
+        properties.setProperty("reWriteBatchedInserts", "true");
+        connection = DriverManager.getConnection(
+                env("SPRING_DATASOURCE_URL", "jdbc:postgresql://localhost:5432/taskmanagement"), properties);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMPORARY TABLE bench_identity (id int8 GENERATED BY DEFAULT AS IDENTITY "
+                    + "(CACHE 1) PRIMARY KEY, title varchar(255), description varchar(255), user_id int8, "
+                    + "category int4, status int4, created_at timestamp(6))");
+            statement.execute("CREATE TEMPORARY TABLE bench_sequence (id int8 PRIMARY KEY, title varchar(255), "
+                    + "description varchar(255), user_id int8, category int4, status int4, created_at timestamp(6))");
+            statement.execute("CREATE TEMPORARY SEQUENCE bench_sequence_seq INCREMENT BY " + ALLOCATION_SIZE);
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE bench_identity, bench_sequence");
+        }
+        connection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long identity() throws SQLException {
+        long id = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_identity (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < rows; i++) {
+                bind(insert, i);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    id = keys.getLong(1);
+                }
+            }
+        }
+        connection.commit();
+        return id;
+    }
+
+    @Benchmark
+    public long sequence() throws SQLException {
+        long id = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_sequence (id, " + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                id = generateId();
+                insert.setLong(1, id);
+                bind(insert, i, 2);
+                insert.executeUpdate();
+            }
+        }
+        connection.commit();
+        return id;
+    }
+
+    @Benchmark
+    public long sequenceBatch() throws SQLException {
+        long id = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_sequence (id, " + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                id = generateId();
+                insert.setLong(1, id);
+                bind(insert, i, 2);
+                insert.addBatch();
+                if ((i + 1) % ALLOCATION_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        return id;
+    }
+
+    /***
+     * pooled-lo: nextval is the first id of a block of ALLOCATION_SIZE ids
+     */
+    private long generateId() throws SQLException {
+        if (nextId == lastId) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT nextval('bench_sequence_seq')")) {
+                resultSet.next();
+                nextId = resultSet.getLong(1);
+                lastId = nextId + ALLOCATION_SIZE;
+            }
+        }
+        return nextId++;
+    }
+
+    private void bind(PreparedStatement insert, int i) throws SQLException {
+        bind(insert, i, 1);
+    }
+
+    private void bind(PreparedStatement insert, int i, int first) throws SQLException {
+        insert.setString(first, "Task " + i);
+        insert.setString(first + 1, "description");
+        insert.setLong(first + 2, 1L);
+        insert.setInt(first + 3, i % 2);
+        insert.setInt(first + 4, 0);
+        insert.setTimestamp(first + 5, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+}
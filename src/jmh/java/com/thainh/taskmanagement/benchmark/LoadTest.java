@@ -0,0 +1,151 @@
+package com.thainh.taskmanagement.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/***
+ * closed-loop load test of a running server: each client sends its next request once the last one returned.
+ * prints throughput and latency percentiles per concurrency, to compare platform and virtual request threads
+ * (start the server with and without the virtual profile). not a jmh benchmark, run its main method:
+ * java -cp target/test-classes com.thainh.taskmanagement.benchmark.LoadTest
+ * -Dload.url=http://localhost:8080/api/tasks/%d  %d is replaced by a random id from 1 to load.ids
+ * -Dload.ids=1000 -Dload.concurrency=10,50,200,800 -Dload.warmup=5 -Dload.duration=20 (seconds)
+ * other requests than GET: -Dload.method=PATCH -Dload.body={"status":1,...} (sent as json)
+ * -Dload.headers="If-None-Match: \"0\";Idempotency-Key: key-%d"  separated by ;
+ * %d of the body and headers is the same random id as in the url
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        String url = System.getProperty("load.url", "http://localhost:8080/api/tasks/%d");
+        long ids = Long.getLong("load.ids", 1000);
+        int[] concurrencies = Arrays.stream(System.getProperty("load.concurrency", "10,50,200,800").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup", 5));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 20));
+        Template template = new Template(url, System.getProperty("load.method", "GET"),
+                System.getProperty("load.body"), System.getProperty("load.headers", ""));
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        System.out.printf("%-12s %10s %10s %10s %10s %10s %8s%n",
+                "concurrency", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (int concurrency : concurrencies) {
+            run(httpClient, template, ids, concurrency, warmup);
+            List<Client> clients = run(httpClient, template, ids, concurrency, duration);
+            long[] latencies = clients.stream()
+                    .flatMapToLong(client -> Arrays.stream(client.latencies, 0, client.count))
+                    .sorted()
+                    .toArray();
+            long errors = clients.stream().mapToLong(client -> client.errors).sum();
+            System.out.printf("%-12d %10.0f %10.1f %10.1f %10.1f %10.1f %8d%n", concurrency,
+                    latencies.length * 1000.0 / duration.toMillis(),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                    percentile(latencies, 1.0), errors);
+        }
+    }
+
+    private static List<Client> run(HttpClient httpClient, Template template, long ids, int concurrency, Duration duration)
+            throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Client> clients = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Client client = new Client(httpClient, template, ids, running);
+            Thread thread = new Thread(client, "load-" + i);
+            thread.start();
+            clients.add(client);
+            threads.add(thread);
+        }
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return clients;
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /***
+     * request sent by the clients, %d replaced by the id of the request
+     */
+    private record Template(String url, String method, String body, String headers) {
+
+        HttpRequest request(long id) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(String.format(url, id)))
+                    .timeout(Duration.ofSeconds(60))
+                    .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofString(String.format(body, id)));
+            if (body != null) {
+                builder.header("Content-Type", "application/json");
+            }
+            for (String header : headers.split(";")) {
+                int colon = header.indexOf(':');
+                if (colon > 0) {
+                    builder.header(header.substring(0, colon).trim(),
+                            String.format(header.substring(colon + 1).trim(), id));
+                }
+            }
+            return builder.build();
+        }
+    }
+
+    /***
+     * one connection worth of load, latencies of successful requests in nanoseconds
+     */
+    private static class Client implements Runnable {
+        private final HttpClient httpClient;
+        private final Template template;
+        private final long ids;
+        private final AtomicBoolean running;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        Client(HttpClient httpClient, Template template, long ids, AtomicBoolean running) {
+            this.httpClient = httpClient;
+            this.template = template;
+            this.ids = ids;
+            this.running = running;
+        }
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                HttpRequest request = template.request(ThreadLocalRandom.current().nextLong(1, ids + 1));
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 500) {
+                        errors++;
+                        continue;
+                    }
+                } catch (Exception e) {
+                    errors++;
+                    continue;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - start;
+            }
+        }
+    }
+}
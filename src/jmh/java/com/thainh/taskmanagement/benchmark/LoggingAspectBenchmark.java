@@ -0,0 +1,118 @@
+package com.thainh.taskmanagement.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.thainh.taskmanagement.controller.TaskController;
+import com.thainh.taskmanagement.dto.BugDto;
+import com.thainh.taskmanagement.dto.FeatureDto;
+import com.thainh.taskmanagement.dto.TaskDto;
+import com.thainh.taskmanagement.dto.TaskListDto;
+import com.thainh.taskmanagement.service.ITaskService;
+import com.thainh.taskmanagement.utils.LoggingAspect;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * cost LoggingAspect adds to the request thread of a controller call.
+ * logger has no appender, so writing the log lines is not measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"INFO", "WARN"})
+    private String logLevel;
+
+    @Param({"true", "false"})
+    private boolean async;
+
+    private LoggingAspect loggingAspect;
+
+    private TaskController controller;
+    private TaskController advisedController;
+
+    @Setup
+    public void setup() {
+        Logger root = (Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.setLevel(Level.toLevel(logLevel));
+
+        List<TaskDto> tasks = new ArrayList<>();
+        for (long i = 1; i <= PAGE_SIZE; i++) {
+            TaskDto taskDto = i % 2 == 0 ? new BugDto() : new FeatureDto();
+            taskDto.setId(i);
+            taskDto.setTitle("Task " + i);
+            taskDto.setDescription("description");
+            taskDto.setUserId(1L);
+            taskDto.setCategory(i % 2 == 0 ? 0 : 1);
+            taskDto.setCategoryId(i);
+            taskDto.setCreatedAt("2025/05/23");
+            tasks.add(taskDto);
+        }
+        Page<TaskDto> page = new PageImpl<>(tasks, PageRequest.of(0, PAGE_SIZE), PAGE_SIZE);
+        ITaskService taskService = (ITaskService) Proxy.newProxyInstance(ITaskService.class.getClassLoader(),
+                new Class<?>[]{ITaskService.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "fetchAllTasks" -> page;
+                    case "fetchTaskById" -> tasks.get(0);
+                    default -> null;
+                });
+
+        controller = new TaskController(taskService, Duration.ofSeconds(15));
+        AspectJProxyFactory factory = new AspectJProxyFactory(controller);
+        factory.setProxyTargetClass(true);
+        loggingAspect = new LoggingAspect(1.0, 2048, async, 1000);
+        factory.addAspect(loggingAspect);
+        advisedController = factory.getProxy();
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(
+                new MockHttpServletRequest("GET", "/api/tasks/"), new MockHttpServletResponse()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        loggingAspect.shutdown();
+    }
+
+    @Benchmark
+    public ResponseEntity<TaskDto> fetchTask() {
+        return controller.fetchTask(1L, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<TaskDto> fetchTaskLogged() {
+        return advisedController.fetchTask(1L, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<TaskListDto> fetchAllTasks() {
+        return controller.fetchAllTasks();
+    }
+
+    @Benchmark
+    public ResponseEntity<TaskListDto> fetchAllTasksLogged() {
+        return advisedController.fetchAllTasks();
+    }
+}
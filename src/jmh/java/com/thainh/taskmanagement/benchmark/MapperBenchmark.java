@@ -0,0 +1,112 @@
+package com.thainh.taskmanagement.benchmark;
+
+import com.thainh.taskmanagement.dto.BugDto;
+import com.thainh.taskmanagement.dto.FeatureDto;
+import com.thainh.taskmanagement.dto.UsersDto;
+import com.thainh.taskmanagement.entity.Bug;
+import com.thainh.taskmanagement.entity.Feature;
+import com.thainh.taskmanagement.entity.Users;
+import com.thainh.taskmanagement.mapper.TaskMapper;
+import com.thainh.taskmanagement.mapper.UsersMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * entity <-> dto mapping of TaskMapper and UsersMapper, called once per task of every page
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Bug bug;
+    private BugDto bugDto;
+    private Feature feature;
+    private FeatureDto featureDto;
+    private Users users;
+    private UsersDto usersDto;
+    // created on different days, more days than the formatted date cache holds
+    private Bug[] bugsOfDistinctDays;
+    private int next;
+
+    @Setup
+    public void setup() {
+        bug = new Bug();
+        bug.setId(1L);
+        bug.setTitle("Login button does nothing");
+        bug.setDescription("description");
+        bug.setUserId(1L);
+        bug.setStatus(0);
+        bug.setSeverity(2);
+        bug.setStepsToReproduce("step1 step2 step3");
+        bug.setExpectedResult("expected");
+        bug.setActualResult("actual");
+        bug.setCreatedAt(LocalDateTime.of(2025, 5, 23, 10, 15, 30));
+        bugDto = TaskMapper.mapToBugDto(bug, new BugDto());
+        bugsOfDistinctDays = new Bug[4096];
+        for (int i = 0; i < bugsOfDistinctDays.length; i++) {
+            Bug other = TaskMapper.mapToBug(bugDto, new Bug());
+            other.setCreatedAt(bug.getCreatedAt().minusDays(i));
+            bugsOfDistinctDays[i] = other;
+        }
+
+        feature = new Feature();
+        feature.setId(2L);
+        feature.setTitle("Export tasks");
+        feature.setDescription("description");
+        feature.setUserId(1L);
+        feature.setStatus(0);
+        feature.setBusinessValue("create a new feature");
+        feature.setDeadline(LocalDate.of(2025, 6, 23));
+        feature.setCreatedAt(LocalDateTime.of(2025, 5, 23, 10, 15, 30));
+        featureDto = TaskMapper.mapToFeatureDto(feature, new FeatureDto());
+
+        users = new Users();
+        users.setId(1L);
+        users.setUsername("thainh");
+        users.setFullName("Thai Nguyen");
+        usersDto = UsersMapper.mapToUsersDto(users, new UsersDto());
+    }
+
+    @Benchmark
+    public BugDto mapToBugDto() {
+        return TaskMapper.mapToBugDto(bug, new BugDto());
+    }
+
+    @Benchmark
+    public BugDto mapToBugDtoDistinctDays() {
+        next = (next + 1) & (bugsOfDistinctDays.length - 1);
+        return TaskMapper.mapToBugDto(bugsOfDistinctDays[next], new BugDto());
+    }
+
+    @Benchmark
+    public Bug mapToBug() {
+        return TaskMapper.mapToBug(bugDto, new Bug());
+    }
+
+    @Benchmark
+    public FeatureDto mapToFeatureDto() {
+        return TaskMapper.mapToFeatureDto(feature, new FeatureDto());
+    }
+
+    @Benchmark
+    public Feature mapToFeature() throws Exception {
+        return TaskMapper.mapToFeature(featureDto, new Feature());
+    }
+
+    @Benchmark
+    public UsersDto mapToUsersDto() {
+        return UsersMapper.mapToUsersDto(users, new UsersDto());
+    }
+
+    @Benchmark
+    public Users mapToUsers() {
+        return UsersMapper.mapToUsers(usersDto, new Users());
+    }
+}
@@ -0,0 +1,134 @@
+package com.thainh.taskmanagement.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/***
+ * execution time of the search queries on the seeded data set (src/jmh/sql/seed_tasks.sql): the same filters,
+ * order and limits as TaskRepository, each run with EXPLAIN ANALYZE and the median of the runs printed.
+ * not a jmh benchmark, run its main method:
+ * java -cp target/test-classes:target/classes:postgresql.jar com.thainh.taskmanagement.benchmark.SearchQueryBench
+ * -Dquery.include=title  regex of the query names, -Dquery.runs=5
+ * -Dquery.drop-indexes=idx_task_title_trgm,idx_task_description_trgm  times the queries without these indexes:
+ * they are dropped in a transaction that is rolled back afterwards (other writers wait meanwhile).
+ * database of SPRING_DATASOURCE_URL/USERNAME/PASSWORD, defaults to localhost:5432/taskmanagement
+ */
+public class SearchQueryBench {
+
+    // word of 50 seeded titles, of no description: the description search finds nothing
+    private static final String RARE = "chargeback";
+    // word of about 6% of the seeded titles
+    private static final String COMMON = "checkout";
+    private static final String ORDER = " ORDER BY t.created_at DESC, t.id DESC";
+
+    /***
+     * @param explainOnly time of planning only, as the ESTIMATED count mode runs a plain EXPLAIN
+     */
+    private record Query(String name, String sql, boolean explainOnly) {
+        Query(String name, String sql) {
+            this(name, sql, false);
+        }
+    }
+
+    private static final List<Query> QUERIES = List.of(
+            // trigram indexes (V8): ILIKE '%text%' of the title and description filters
+            new Query("title-rare-page", "SELECT * FROM task t WHERE t.title ILIKE '%" + RARE + "%'" + ORDER + " LIMIT 10"),
+            new Query("title-rare-count", "SELECT COUNT(*) FROM task t WHERE t.title ILIKE '%" + RARE + "%'"),
+            new Query("description-rare-page", "SELECT * FROM task t WHERE t.description ILIKE '%" + RARE + "%'" + ORDER + " LIMIT 10"),
+            new Query("title-common-count", "SELECT COUNT(*) FROM task t WHERE t.title ILIKE '%" + COMMON + "%'"),
+            // full-text mode (V8): best matches first
+            new Query("fulltext-rare-page", fullText(RARE)),
+            new Query("fulltext-common-page", fullText(COMMON + " refund")),
+            // user and status filters (V11), page and count of the page search
+            new Query("user-status-page", "SELECT * FROM task t WHERE t.status = 1 AND t.user_id = 1" + ORDER + " LIMIT 20"),
+            new Query("user-status-count", "SELECT COUNT(*) FROM task t WHERE t.status = 1 AND t.user_id = 1"),
+            new Query("user-page", "SELECT * FROM task t WHERE t.user_id = 1" + ORDER + " LIMIT 20"),
+            new Query("user-count", "SELECT COUNT(*) FROM task t WHERE t.user_id = 1"),
+            new Query("status-page", "SELECT * FROM task t WHERE t.status = 1" + ORDER + " LIMIT 20"),
+            new Query("status-count", "SELECT COUNT(*) FROM task t WHERE t.status = 1"),
+            // count modes without filter: EXACT runs the count, NONE reads one row more, ESTIMATED explains the count
+            new Query("all-page", "SELECT * FROM task t" + ORDER + " LIMIT 21"),
+            new Query("all-count", "SELECT COUNT(*) FROM task t"),
+            new Query("all-count-estimate", "SELECT COUNT(*) FROM task t", true)
+    );
+
+    public static void main(String[] args) throws SQLException {
+        Pattern include = Pattern.compile(System.getProperty("query.include", ".*"));
+        int runs = Integer.getInteger("query.runs", 5);
+        String dropIndexes = System.getProperty("query.drop-indexes", "");
+
+        Properties properties = new Properties();
+        properties.setProperty("user", env("SPRING_DATASOURCE_USERNAME", "postgres"));
+        properties.setProperty("password", env("SPRING_DATASOURCE_PASSWORD", "postgres"));
+        try (Connection connection = DriverManager.getConnection(
+                env("SPRING_DATASOURCE_URL", "jdbc:postgresql://localhost:5432/taskmanagement"), properties);
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            for (String index : dropIndexes.split(",")) {
+                if (!index.isBlank()) {
+                    statement.execute("DROP INDEX " + index.trim());
+                }
+            }
+            System.out.printf("%-24s %10s%n", "query", "median ms");
+            for (Query query : QUERIES) {
+                if (!include.matcher(query.name()).find()) {
+                    continue;
+                }
+                // first run reads the pages into the buffer cache, not counted
+                time(statement, query);
+                double[] times = new double[runs];
+                for (int i = 0; i < runs; i++) {
+                    times[i] = time(statement, query);
+                }
+                Arrays.sort(times);
+                System.out.printf("%-24s %10.2f%n", query.name(), times[runs / 2]);
+            }
+            connection.rollback();
+        }
+    }
+
+    private static String fullText(String text) {
+        String query = "websearch_to_tsquery('simple', '" + text + "')";
+        return "SELECT * FROM task t WHERE t.search_vector @@ " + query
+                + " ORDER BY ts_rank(t.search_vector, " + query + ") DESC, t.created_at DESC, t.id DESC LIMIT 10";
+    }
+
+    /***
+     * @return execution time reported by EXPLAIN ANALYZE, or the time of the EXPLAIN for explain only queries
+     */
+    private static double time(Statement statement, Query query) throws SQLException {
+        if (query.explainOnly()) {
+            long start = System.nanoTime();
+            try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + query.sql())) {
+                while (resultSet.next()) {
+                    resultSet.getString(1);
+                }
+            }
+            return (System.nanoTime() - start) / 1_000_000.0;
+        }
+        List<String> plan = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery("EXPLAIN (ANALYZE) " + query.sql())) {
+            while (resultSet.next()) {
+                plan.add(resultSet.getString(1));
+            }
+        }
+        return plan.stream()
+                .filter(line -> line.startsWith("Execution Time:"))
+                .map(line -> Double.parseDouble(line.replaceAll("[^0-9.]", "")))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No execution time in " + plan));
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
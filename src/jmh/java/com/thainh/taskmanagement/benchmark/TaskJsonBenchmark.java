@@ -0,0 +1,109 @@
+package com.thainh.taskmanagement.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.thainh.taskmanagement.dto.BugDto;
+import com.thainh.taskmanagement.dto.FeatureDto;
+import com.thainh.taskmanagement.dto.TaskDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/***
+ * task json read and write: through an ObjectNode tree (old controller/service path)
+ * against binding BugDto/FeatureDto directly from the category
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskJsonBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private ObjectMapper mapper;
+    private byte[] featureJson;
+    private FeatureDto featureDto;
+    private List<TaskDto> page;
+
+    @Setup
+    public void setup() throws Exception {
+        // same configuration as the ObjectMapper of Spring MVC
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        featureDto = new FeatureDto();
+        featureDto.setId(1L);
+        featureDto.setTitle("New feature");
+        featureDto.setDescription("description");
+        featureDto.setUserId(1L);
+        featureDto.setCategory(1);
+        featureDto.setCategoryId(1L);
+        featureDto.setStatus(0);
+        featureDto.setCreatedAt("2025/05/23");
+        featureDto.setBusinessValue("create a new feature");
+        featureDto.setDeadline("2025/06/23");
+        featureJson = mapper.writeValueAsBytes(featureDto);
+
+        page = new ArrayList<>();
+        for (long i = 1; i <= PAGE_SIZE; i++) {
+            if (i % 2 == 0) {
+                BugDto bugDto = new BugDto();
+                bugDto.setId(i);
+                bugDto.setTitle("Bug " + i);
+                bugDto.setUserId(1L);
+                bugDto.setCategory(0);
+                bugDto.setCategoryId(i);
+                bugDto.setCreatedAt("2025/05/23");
+                bugDto.setSeverity(1);
+                bugDto.setStepsToReproduce("step1 step2 step3");
+                bugDto.setActualResult("actual");
+                page.add(bugDto);
+            } else {
+                page.add(mapper.readValue(featureJson, TaskDto.class));
+            }
+        }
+    }
+
+    @Benchmark
+    public TaskDto readObjectNode() throws Exception {
+        ObjectNode node = (ObjectNode) mapper.readTree(featureJson);
+        return node.get("category").asInt() == 0
+                ? mapper.convertValue(node, BugDto.class)
+                : mapper.convertValue(node, FeatureDto.class);
+    }
+
+    @Benchmark
+    public TaskDto readTyped() throws Exception {
+        return mapper.readValue(featureJson, TaskDto.class);
+    }
+
+    @Benchmark
+    public byte[] writeObjectNode() throws Exception {
+        JsonNode node = mapper.valueToTree(featureDto);
+        return mapper.writeValueAsBytes(node);
+    }
+
+    @Benchmark
+    public byte[] writeTyped() throws Exception {
+        return mapper.writeValueAsBytes(featureDto);
+    }
+
+    @Benchmark
+    public byte[] writePageObjectNode() throws Exception {
+        List<JsonNode> nodes = new ArrayList<>(page.size());
+        for (TaskDto taskDto : page) {
+            nodes.add(mapper.valueToTree(taskDto));
+        }
+        return mapper.writeValueAsBytes(nodes);
+    }
+
+    @Benchmark
+    public byte[] writePageTyped() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,41 @@
+-- benchmark data set: 1000 users and 1,000,000 tasks, the data set of the timings in the commit history.
+-- run on an empty database migrated by the application (start it once against the database), e.g.
+-- docker compose exec -T postgres psql -U postgres -d bench -v ON_ERROR_STOP=1 < src/jmh/sql/seed_tasks.sql
+--
+-- users 1..1000 (bench1..bench1000), each with 1000 tasks: user_id = 1 + id % 1000
+-- tasks 1..1000000, one per second back from now, category id % 2, status id % 3
+-- title of 4 and description of 20 words drawn from the 65 words below, so every word is common
+-- (a word is in about 6% of the titles). every 20000th title also has the word chargeback (50 tasks),
+-- the selective search of SearchQueryBench
+
+INSERT INTO users (id, username, full_name, created_at)
+SELECT g, 'bench' || g, 'Bench User ' || g, now()
+FROM generate_series(1, 1000) g;
+
+CREATE TEMPORARY TABLE seed_word AS
+SELECT unnest(string_to_array('login page crash button payment invoice report export import timeout database cache '
+    || 'search filter profile avatar upload download email notification mobile desktop layout slow memory leak '
+    || 'error validation checkout cart order shipping refund dashboard chart api token session password reset '
+    || 'security audit billing calendar schedule reminder sync offline backup restore migration locale '
+    || 'translation theme dark mode keyboard shortcut accessibility', ' ')) AS word;
+
+-- g * 0 makes the word subqueries depend on the row, so they are drawn again for every task
+INSERT INTO task (id, title, description, user_id, category, status, severity, business_value, created_at)
+SELECT g,
+       (SELECT string_agg(word, ' ') FROM (SELECT word FROM seed_word ORDER BY random() + g * 0 LIMIT 4) t)
+           || CASE WHEN g % 20000 = 0 THEN ' chargeback' ELSE '' END,
+       (SELECT string_agg(word, ' ') FROM (SELECT word FROM seed_word ORDER BY random() + g * 0 LIMIT 20) d),
+       1 + g % 1000,
+       g % 2,
+       g % 3,
+       CASE WHEN g % 2 = 0 THEN 1 END,
+       CASE WHEN g % 2 = 1 THEN 'value' END,
+       now() - (g || ' seconds')::interval
+FROM generate_series(1, 1000000) g;
+
+-- ids handed out by hibernate start after the seeded ones, as in V9 and V10
+SELECT setval('task_id_seq', (SELECT MAX(id) FROM task) + 50, false);
+SELECT setval('users_id_seq', (SELECT MAX(id) FROM users) + 1, false);
+
+VACUUM ANALYZE task;
+VACUUM ANALYZE users;
@@ -0,0 +1,113 @@
+package com.thainh.taskmanagement.controller;
+
+import com.thainh.taskmanagement.dto.ResponseDto;
+import com.thainh.taskmanagement.dto.SearchDto;
+import com.thainh.taskmanagement.dto.TaskDto;
+import com.thainh.taskmanagement.service.IReactiveTaskService;
+import com.thainh.taskmanagement.utils.Constants;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/***
+ * non-blocking reads beside the blocking endpoints of TaskController and SearchController.
+ * the request thread is released while the database answers, lists are written as NDJSON
+ * one task at a time and the next rows are only read once the client has taken the previous ones
+ */
+@Tag(
+        name = "Reactive Task",
+        description = "Non-blocking read APIs"
+)
+@RestController
+@RequestMapping("/api/reactive")
+@AllArgsConstructor
+@Validated
+public class ReactiveTaskController {
+
+    private IReactiveTaskService reactiveTaskService;
+
+    @Operation(
+            summary = "Stream all tasks",
+            description = "Stream all tasks as NDJSON, one task per line, newest first"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Fetch all tasks"
+            )}
+    )
+    @GetMapping(value = "/tasks/", produces = Constants.APPLICATION_NDJSON_VALUE)
+    public Flux<TaskDto> fetchAllTasks() {
+        return reactiveTaskService.fetchAllTasks();
+    }
+
+    @Operation(
+            summary = "Fetch a task",
+            description = "Fetch a task by id"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Fetch successfully"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "BadRequestExample",
+                                    summary = "NOT FOUND",
+                                    value = """
+                                            {
+                                                "apiPath": "uri=/api/reactive/tasks/1",
+                                                "errorCode": "NOT_FOUND",
+                                                "errorMessage": "Task not found with field id : '1'",
+                                                "errorTime": "2025-05-23T23:49:35.8741427"
+                                            }"""
+                            ),
+                            schema = @Schema(implementation = ResponseDto.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/tasks/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<TaskDto> fetchTask(@PathVariable("id") Long id) {
+        return reactiveTaskService.fetchTaskById(id);
+    }
+
+    @Operation(
+            summary = "Stream tasks filtered by conditions",
+            description = "Stream the tasks of one page as NDJSON, same filter and order as /api/search/. " +
+                    "No count, keyset and countMode are ignored"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Search successfully"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "User not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/search/", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = Constants.APPLICATION_NDJSON_VALUE)
+    public Flux<TaskDto> search(@Valid @RequestBody SearchDto searchDto) {
+        return reactiveTaskService.searchTasks(searchDto);
+    }
+}
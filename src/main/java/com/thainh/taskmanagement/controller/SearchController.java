@@ -1,6 +1,5 @@
 package com.thainh.taskmanagement.controller;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.thainh.taskmanagement.dto.ResponseDto;
 import com.thainh.taskmanagement.dto.SearchDto;
 import com.thainh.taskmanagement.dto.TaskListDto;
@@ -14,7 +13,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -37,7 +35,8 @@ public class SearchController {
 
     @Operation(
             summary = "Filter task by conditions",
-            description = "Filter task by conditions"
+            description = "Filter task by conditions. Set keyset to page with nextCursor instead of page number. " +
+                    "countMode NONE skips the count query, ESTIMATED takes the count from the query plan"
     )
     @ApiResponses({
             @ApiResponse(
@@ -83,11 +82,9 @@ public class SearchController {
     })
     @PostMapping(value = "/", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<TaskListDto> search(@Valid @RequestBody SearchDto searchDto) {
-        Page<ObjectNode> result = taskService.searchTasks(searchDto);
-        TaskListDto taskListDto = new TaskListDto(
-                result.getContent(),
-                result.getTotalElements(),
-                result.getTotalPages());
-        return ResponseEntity.ok(taskListDto);
+        if (searchDto.isKeyset()) {
+            return ResponseEntity.ok(taskService.searchTasksAfterCursor(searchDto));
+        }
+        return ResponseEntity.ok(taskService.searchTasks(searchDto));
     }
 }
@@ -1,24 +1,35 @@
 package com.thainh.taskmanagement.controller;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.thainh.taskmanagement.dto.*;
+import com.thainh.taskmanagement.exception.TaskVersionException;
 import com.thainh.taskmanagement.service.ITaskService;
 import com.thainh.taskmanagement.utils.Constants;
+import com.thainh.taskmanagement.utils.Idempotent;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.validation.Valid;
-import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Tag(
         name = "Task Management",
@@ -26,11 +37,21 @@ import org.springframework.web.bind.annotation.*;
 )
 @RestController
 @RequestMapping("/api/tasks")
-@AllArgsConstructor
 @Validated
 public class TaskController {
 
-    private ITaskService taskService;
+    private final ITaskService taskService;
+    private final Duration streamHeartbeat;
+
+    /***
+     * @param streamHeartbeat interval of the comments of /stream, so proxies keep the connection open
+     *                        and a closed client is noticed
+     */
+    public TaskController(ITaskService taskService,
+                          @Value("${task.stream.heartbeat:15s}") Duration streamHeartbeat) {
+        this.taskService = taskService;
+        this.streamHeartbeat = streamHeartbeat;
+    }
 
     @Operation(
             summary = "Create a task",
@@ -76,14 +97,72 @@ public class TaskController {
                     )
             ),
     })
+    @Parameter(in = ParameterIn.HEADER, name = Constants.IDEMPOTENCY_KEY_HEADER,
+            description = "retries with the same key get the first response again, without creating again",
+            schema = @Schema(type = "string"))
+    @Idempotent
     @PostMapping(value = "/create", produces = MediaType.APPLICATION_JSON_VALUE,
             consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ResponseDto> createTask(@Valid @RequestBody ObjectNode taskDto) {
+    public ResponseEntity<ResponseDto> createTask(@RequestBody TaskDto taskDto) {
         taskService.createTask(taskDto);
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(new ResponseDto(Constants.STATUS_201,Constants.CREATE_SUCCESS));
     }
 
+    @Operation(
+            summary = "Create tasks",
+            description = "Create up to 1000 tasks in one transaction. Every task is validated first, " +
+                    "invalid tasks are reported and not created"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Result of each task",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "BatchExample",
+                                    summary = "One task created, one failed",
+                                    value = """
+                                            {
+                                                "totalTask": 2,
+                                                "created": 1,
+                                                "failed": 1,
+                                                "results": [
+                                                    { "index": 0, "id": 51, "status": "CREATED", "errorMessage": null },
+                                                    { "index": 1, "id": null, "status": "FAILED", "errorMessage": "Users not found with field id : '9'" }
+                                                ]
+                                            }"""
+                            ),
+                            schema = @Schema(implementation = TaskBatchResultDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "BadRequestExample",
+                                    summary = "Empty or too many tasks",
+                                    value = """
+                                            {
+                                                "apiPath": "uri=/api/tasks/batch",
+                                                "errorCode": "BAD_REQUEST",
+                                                "errorMessage": "Validation tasks failed: Between 1 and 1000 tasks are required",
+                                                "errorTime": "2025-05-22T21:35:39.7374659"
+                                            }"""
+                            ),
+                            schema = @Schema(implementation = ResponseDto.class)
+                    )
+            ),
+    })
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TaskBatchResultDto> createTasks(@RequestBody List<TaskDto> taskDtos) {
+        return ResponseEntity.ok(taskService.createTasks(taskDtos));
+    }
+
     @Operation(
             summary = "Get all tasks",
             description = "Get all tasks"
@@ -96,22 +175,107 @@ public class TaskController {
     )
     @GetMapping(value = "/", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<TaskListDto> fetchAllTasks() {
-        Page<ObjectNode> tasks = taskService.fetchAllTasks();
+        Page<TaskDto> tasks = taskService.fetchAllTasks();
         TaskListDto result = new TaskListDto(tasks.getContent(),
                 tasks.getTotalElements(),
                 tasks.getTotalPages());
         return ResponseEntity.ok(result);
     }
 
+    @Operation(
+            summary = "Export all tasks",
+            description = "Stream all tasks as NDJSON, one task per line, newest first"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Export all tasks",
+                    content = @Content(
+                            mediaType = Constants.APPLICATION_NDJSON_VALUE,
+                            examples = @ExampleObject(
+                                    name = "ExportExample",
+                                    summary = "Tasks",
+                                    value = """
+                                            {"id":2,"title":"Feature","userId":1,"category":1,"status":0,"createdAt":"2025/05/23","businessValue":"value","deadline":"2025/06/23"}
+                                            {"id":1,"title":"Bug","userId":1,"category":0,"status":0,"createdAt":"2025/05/22","severity":1}"""
+                            )
+                    )
+            )}
+    )
+    @GetMapping(value = "/export", produces = Constants.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTasks() {
+        StreamingResponseBody body = taskService::exportTasks;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(Constants.APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    @Operation(
+            summary = "Stream task changes",
+            description = "Server-sent events of the task changes committed from now on, instead of polling " +
+                    "/api/search/. Filtered by userId and status, a change is sent when the task matches " +
+                    "before or after it. Bulk changes without a user or status are sent to every client"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stream of changes, one event per change named by its type",
+                    content = @Content(
+                            mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            examples = @ExampleObject(
+                                    name = "StreamExample",
+                                    summary = "Changes",
+                                    value = """
+                                            event:UPDATED
+                                            data:{"type":"UPDATED","id":1,"userId":1,"status":1,"previousUserId":1,"previousStatus":0,"affected":null}
+
+                                            event:BULK_DELETED
+                                            data:{"type":"BULK_DELETED","id":null,"userId":1,"status":2,"previousUserId":null,"previousStatus":null,"affected":42}
+                                            """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "User not found, or the stream is off (task.stream.enabled)",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseDto.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<TaskChangeDto>> streamTasks(
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "status", required = false) Integer status) {
+        Flux<ServerSentEvent<TaskChangeDto>> changes = taskService.streamTaskChanges(userId, status)
+                .map(change -> ServerSentEvent.builder(change).event(change.getType()).build());
+        Flux<ServerSentEvent<TaskChangeDto>> heartbeats = Flux.interval(streamHeartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<TaskChangeDto>builder().comment("heartbeat").build());
+        return Flux.merge(changes, heartbeats);
+    }
+
+    /***
+     * with If-None-Match only the version is read, an unchanged task is neither loaded, mapped nor serialized
+     * @param id task id
+     * @param ifNoneMatch versions the client has, null to always send the task
+     * @return task with its version as ETag, or 304 without body
+     */
     @Operation(
             summary = "Fetch a task",
-            description = "Fetch a task by id"
+            description = "Fetch a task by id. The ETag is the version of the task, with If-None-Match " +
+                    "the task is only sent when it has changed"
     )
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
                     description = "Fetch successfully"
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not modified since the version of If-None-Match"
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Not found",
@@ -150,10 +314,24 @@ public class TaskController {
             ),
     })
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ObjectNode> fetchTask(@PathVariable("id") Long id) {
-        ObjectNode objectNode = taskService.fetchTaskById(id);
+    public ResponseEntity<TaskDto> fetchTask(@PathVariable("id") Long id,
+                                             @Parameter(in = ParameterIn.HEADER, name = HttpHeaders.IF_NONE_MATCH,
+                                                     description = "ETag of the version the client has, 304 when the task still has it",
+                                                     schema = @Schema(type = "string"))
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            ETag current = eTag(taskService.fetchTaskVersion(id));
+            // weak comparison, as for any If-None-Match
+            if (ETag.parse(ifNoneMatch).stream().anyMatch(tag -> tag.isWildcard() || tag.compare(current, false))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(current.formattedTag())
+                        .build();
+            }
+        }
+        TaskDto taskDto = taskService.fetchTaskById(id);
         return ResponseEntity.status(HttpStatus.OK)
-                .body(objectNode);
+                .eTag(taskDto.getVersion() == null ? null : eTag(taskDto.getVersion()).formattedTag())
+                .body(taskDto);
     }
 
     @Operation(
@@ -211,7 +389,7 @@ public class TaskController {
 
     @Operation(
             summary = "Update a task",
-            description = "Update a task by id"
+            description = "Update a task by id. With If-Match the task is only updated at that version"
     )
     @ApiResponses({
             @ApiResponse(
@@ -258,9 +436,145 @@ public class TaskController {
     @PatchMapping(value = "/update/{id}", produces = MediaType.APPLICATION_JSON_VALUE,
             consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ResponseDto> updateTask(@PathVariable("id") Long id,
-                                                  @RequestBody ObjectNode objectNode) {
-        taskService.updateTask(id, objectNode);
+                                                  @RequestBody TaskDto taskDto,
+                                                  @Parameter(in = ParameterIn.HEADER, name = HttpHeaders.IF_MATCH,
+                                                          description = "ETags of the versions to update, 412 when the task has none of them",
+                                                          schema = @Schema(type = "string"))
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        // the version in the body is read-only, only If-Match makes the update conditional
+        taskDto.setVersion(ifMatch == null ? null : ifMatchVersion(id, ifMatch));
+        taskService.updateTask(id, taskDto);
         return ResponseEntity.status(HttpStatus.OK)
                 .body(new ResponseDto(Constants.STATUS_200,Constants.UPDATE_SUCCESS));
     }
+
+    @Operation(
+            summary = "Delete tasks",
+            description = "Delete the tasks selected by ids or by a search filter in one statement"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Number of deleted tasks",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "BulkExample",
+                                    summary = "Tasks deleted",
+                                    value = """
+                                            { "affected": 42 }"""
+                            ),
+                            schema = @Schema(implementation = TaskBulkResultDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "BadRequestExample",
+                                    summary = "No ids or filter",
+                                    value = """
+                                            {
+                                                "apiPath": "uri=/api/tasks",
+                                                "errorCode": "BAD_REQUEST",
+                                                "errorMessage": "Validation ids failed: Either ids or filter is required",
+                                                "errorTime": "2025-05-22T21:35:39.7374659"
+                                            }"""
+                            ),
+                            schema = @Schema(implementation = ResponseDto.class)
+                    )
+            ),
+    })
+    @DeleteMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TaskBulkResultDto> deleteTasks(@RequestBody TaskBulkDto taskBulkDto) {
+        return ResponseEntity.ok(taskService.deleteTasks(taskBulkDto));
+    }
+
+    @Operation(
+            summary = "Change status of tasks",
+            description = "Move the tasks selected by ids or by a search filter to a status in one statement. " +
+                    "Tasks already in the status are not changed"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Number of changed tasks",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "BulkExample",
+                                    summary = "Tasks changed",
+                                    value = """
+                                            { "affected": 42 }"""
+                            ),
+                            schema = @Schema(implementation = TaskBulkResultDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "BadRequestExample",
+                                    summary = "No status",
+                                    value = """
+                                            {
+                                                "apiPath": "uri=/api/tasks/status",
+                                                "errorCode": "BAD_REQUEST",
+                                                "errorMessage": "Validation status failed: Status is required",
+                                                "errorTime": "2025-05-22T21:35:39.7374659"
+                                            }"""
+                            ),
+                            schema = @Schema(implementation = ResponseDto.class)
+                    )
+            ),
+    })
+    @PatchMapping(value = "/status", produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TaskBulkResultDto> updateTasksStatus(@RequestBody TaskBulkDto taskBulkDto) {
+        return ResponseEntity.ok(taskService.updateTasksStatus(taskBulkDto));
+    }
+
+    private static ETag eTag(long version) {
+        return new ETag(String.valueOf(version), false);
+    }
+
+    /***
+     * strong comparison: weak tags and anything else than a version never match.
+     * of a list, the tag of the current version is the one to update, the service checks it again
+     * in its transaction
+     * @param id task id
+     * @param ifMatch If-Match header
+     * @return version to update, null for * (any version)
+     */
+    private Long ifMatchVersion(Long id, String ifMatch) {
+        List<ETag> tags = ETag.parse(ifMatch);
+        if (tags.stream().anyMatch(ETag::isWildcard)) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>(tags.size());
+        for (ETag tag : tags) {
+            if (!tag.weak()) {
+                try {
+                    versions.add(Long.parseLong(tag.tag()));
+                } catch (NumberFormatException e) {
+                    // not a version of this api
+                }
+            }
+        }
+        if (versions.size() == 1) {
+            return versions.get(0);
+        }
+        if (versions.size() > 1) {
+            long current = taskService.fetchTaskVersion(id);
+            if (versions.contains(current)) {
+                return current;
+            }
+        }
+        throw new TaskVersionException(id, ifMatch);
+    }
 }
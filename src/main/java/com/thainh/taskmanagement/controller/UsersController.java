@@ -5,7 +5,10 @@ import com.thainh.taskmanagement.dto.UsersDto;
 import com.thainh.taskmanagement.dto.UsersListDto;
 import com.thainh.taskmanagement.service.IUsersService;
 import com.thainh.taskmanagement.utils.Constants;
+import com.thainh.taskmanagement.utils.Idempotent;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -94,6 +97,10 @@ public class UsersController {
                     )
             ),
     })
+    @Parameter(in = ParameterIn.HEADER, name = Constants.IDEMPOTENCY_KEY_HEADER,
+            description = "retries with the same key get the first response again, without creating again",
+            schema = @Schema(type = "string"))
+    @Idempotent
     @PostMapping(value = "/create", produces = MediaType.APPLICATION_JSON_VALUE,
             consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ResponseDto> createUser(@Valid @RequestBody UsersDto usersDto) {
@@ -3,9 +3,11 @@ package com.thainh.taskmanagement.dto;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @AllArgsConstructor
+@NoArgsConstructor
 @Schema(
     name = "Response",
     description = "Successful Response"
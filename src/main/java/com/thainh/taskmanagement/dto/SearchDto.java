@@ -1,5 +1,6 @@
 package com.thainh.taskmanagement.dto;
 
+import com.thainh.taskmanagement.utils.Constants;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -24,9 +25,23 @@ public class SearchDto {
     @Schema(description = "description contain text", example = "description")
     private String description;
     @NotNull
-    @Schema(description = "page number", example = "0")
-    private Integer pageNum;
+    @Schema(description = "page number, ignored in keyset mode", example = "0")
+    private Integer pageNum = 0;
     @NotNull
-    @Schema(description = "page size", example = "10")
+    @Min(value = 1, message = "Page size must be between 1 and " + Constants.SEARCH_MAX_PAGE_SIZE)
+    @Max(value = Constants.SEARCH_MAX_PAGE_SIZE, message = "Page size must be between 1 and " + Constants.SEARCH_MAX_PAGE_SIZE)
+    @Schema(description = "page size, at most 1000", example = "10")
     private Integer pageSize;
+    @Schema(description = "full-text mode: match words of title and description, best matches first. Ignored in keyset mode", example = "false")
+    private boolean fullText;
+    @Schema(description = "keyset mode: read the page after cursor instead of using page number", example = "false")
+    private boolean keyset;
+    @Schema(description = "keyset mode: nextCursor of the previous page, empty for the first page", example = "")
+    private String cursor;
+    @Schema(description = "keyset mode: also count all matching tasks", example = "false")
+    private boolean includeTotal;
+    @NotNull
+    @Schema(description = "count of matching tasks: EXACT, NONE (no count, only hasNext) or ESTIMATED (planner estimate). " +
+            "Ignored in full-text and keyset mode", example = "EXACT")
+    private Constants.COUNT_MODE countMode = Constants.COUNT_MODE.EXACT;
 }
@@ -0,0 +1,24 @@
+package com.thainh.taskmanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Schema(
+        name = "TaskBatchItem",
+        description = "Result of one task of a batch"
+)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBatchItemDto {
+    @Schema(description = "position of the task in the request", example = "0")
+    private int index;
+    @Schema(description = "id of the created task, null if it failed", example = "1")
+    private Long id;
+    @Schema(description = "CREATED or FAILED", example = "CREATED")
+    private String status;
+    @Schema(description = "reason of the failure", example = "Users not found with field id : '9'")
+    private String errorMessage;
+}
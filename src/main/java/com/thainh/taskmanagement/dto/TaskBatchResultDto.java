@@ -0,0 +1,26 @@
+package com.thainh.taskmanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Schema(
+        name = "TaskBatchResult",
+        description = "Result of a batch of tasks"
+)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBatchResultDto {
+    @Schema(description = "number of tasks in the request", example = "2")
+    private int totalTask;
+    @Schema(description = "number of tasks created", example = "1")
+    private int created;
+    @Schema(description = "number of tasks not created", example = "1")
+    private int failed;
+    @Schema(description = "result of each task, in request order", example = "[]")
+    private List<TaskBatchItemDto> results;
+}
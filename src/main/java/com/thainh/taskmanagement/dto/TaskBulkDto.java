@@ -0,0 +1,25 @@
+package com.thainh.taskmanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(
+        name = "TaskBulk",
+        description = "Tasks selected by ids or by a search filter, one of them is required"
+)
+public class TaskBulkDto {
+    @Schema(description = "ids of the tasks, up to 10000", example = "[1, 2, 3]")
+    private List<Long> ids;
+    @Schema(description = "search filter: status, userId, title and description. " +
+            "At least one of them is required, page, full-text and keyset fields are not used")
+    private SearchDto filter;
+    @Min(value = 0, message = "Status must be between 0 and 2")
+    @Max(value = 2, message = "Status must be between 0 and 2")
+    @Schema(description = "new status, only for the status change, using enum from Constants", example = "2")
+    private Integer status;
+}
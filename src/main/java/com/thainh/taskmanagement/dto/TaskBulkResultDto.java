@@ -0,0 +1,19 @@
+package com.thainh.taskmanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Schema(
+        name = "TaskBulkResult",
+        description = "Result of a bulk delete or status change"
+)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBulkResultDto {
+    @Schema(description = "number of tasks deleted or changed, unknown ids and tasks already in the status are not counted",
+            example = "42")
+    private int affected;
+}
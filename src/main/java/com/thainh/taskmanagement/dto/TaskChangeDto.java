@@ -0,0 +1,38 @@
+package com.thainh.taskmanagement.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Schema(
+        name = "TaskChange",
+        description = "A committed change of one task, or of the tasks of a bulk request, sent by /api/tasks/stream"
+)
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskChangeDto {
+    @Schema(description = "CREATED, UPDATED, DELETED, BULK_DELETED or BULK_STATUS_CHANGED", example = "UPDATED")
+    private String type;
+
+    @Schema(description = "id of the task, null for bulk changes", example = "1")
+    private Long id;
+
+    @Schema(description = "user of the task after the change, null when a bulk change can concern any user",
+            example = "1")
+    private Long userId;
+
+    @Schema(description = "status of the task after the change, null when a bulk change can concern any status",
+            example = "1")
+    private Integer status;
+
+    @Schema(description = "user of the task before an update", example = "1")
+    private Long previousUserId;
+
+    @Schema(description = "status of the task before an update or a bulk status change", example = "0")
+    private Integer previousStatus;
+
+    @Schema(description = "number of tasks of a bulk change", example = "42")
+    private Integer affected;
+}
@@ -1,5 +1,7 @@
 package com.thainh.taskmanagement.dto;
 
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -12,7 +14,14 @@ import lombok.Data;
         name = "Task",
         description = "Task information"
 )
-public class TaskDto {
+// category decides if the json is a bug or a feature, it is read and written as a normal field
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.EXISTING_PROPERTY,
+        property = "category", visible = true)
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = BugDto.class, name = "0"),
+        @JsonSubTypes.Type(value = FeatureDto.class, name = "1")
+})
+public abstract class TaskDto {
     @Schema(description = "task id", example = "1234567890")
     private Long id;
     @NotNull(message = "Title is required")
@@ -39,5 +48,8 @@ public class TaskDto {
     private int status;
     @Schema(description = "createAt", example = "2025/05/23")
     private String createdAt;
+    @Schema(description = "version, changes on every update. Also sent as ETag, send it back in If-Match " +
+            "to update only this version", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
 
 }
@@ -1,6 +1,5 @@
 package com.thainh.taskmanagement.dto;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -17,9 +16,19 @@ import java.util.List;
 @AllArgsConstructor
 public class TaskListDto {
     @Schema(description = "list of users", example = "[]")
-    private List<ObjectNode> results;
+    private List<TaskDto> results;
     @Schema(description = "number tasks in page", example = "0")
     private Long totalTask;
     @Schema(description = "page number", example = "0")
     private Integer totalPage;
+    @Schema(description = "keyset mode: cursor of the next page, null on the last page", example = "MjAyNS0wNS0yM1QxMDoxNTozMHwxMg")
+    private String nextCursor;
+    @Schema(description = "how totalTask was computed: EXACT, NONE (totalTask and totalPage are null) or ESTIMATED", example = "EXACT")
+    private String countMode;
+    @Schema(description = "true if there is a page after this one", example = "true")
+    private Boolean hasNext;
+
+    public TaskListDto(List<TaskDto> results, Long totalTask, Integer totalPage) {
+        this(results, totalTask, totalPage, null, null, null);
+    }
 }
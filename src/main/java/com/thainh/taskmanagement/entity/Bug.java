@@ -1,24 +1,30 @@
 package com.thainh.taskmanagement.entity;
 
+import com.thainh.taskmanagement.utils.Constants;
+import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
+/***
+ * updates list only the changed columns, @DynamicUpdate is not inherited from Task
+ */
 @Entity
+@DynamicUpdate
+@DiscriminatorValue("0")
 @Getter
 @Setter
-@ToString
+@ToString(callSuper = true)
 @AllArgsConstructor
 @NoArgsConstructor
-public class Bug extends BaseEntity{
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
+public class Bug extends Task{
     private int severity;
     private String stepsToReproduce;
     private String expectedResult;
     private String actualResult;
+
+    @Override
+    public int getCategory() {
+        return Constants.CATEGORY.BUG.getCode();
+    }
 }
@@ -1,24 +1,30 @@
 package com.thainh.taskmanagement.entity;
 
+import com.thainh.taskmanagement.utils.Constants;
+import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 
+/***
+ * updates list only the changed columns, @DynamicUpdate is not inherited from Task
+ */
 @Entity
+@DynamicUpdate
+@DiscriminatorValue("1")
 @Getter
 @Setter
-@ToString
+@ToString(callSuper = true)
 @AllArgsConstructor
 @NoArgsConstructor
-public class Feature extends BaseEntity{
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
+public class Feature extends Task{
     private String businessValue;
     private LocalDate deadline;
+
+    @Override
+    public int getCategory() {
+        return Constants.CATEGORY.FEATURE.getCode();
+    }
 }
@@ -0,0 +1,28 @@
+package com.thainh.taskmanagement.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/***
+ * first response of a create request, stored by its Idempotency-Key header.
+ * statusCode is null while the first request is running
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyKey {
+    @Id
+    private String idempotencyKey;
+    private String apiPath;
+    // sha-256 of the request body, the same key must come with the same request
+    private String requestHash;
+    private Integer statusCode;
+    private String responseBody;
+    private LocalDateTime createdAt;
+}
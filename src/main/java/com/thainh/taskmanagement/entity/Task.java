@@ -1,26 +1,42 @@
 package com.thainh.taskmanagement.entity;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
+import com.thainh.taskmanagement.utils.Constants;
+import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+/***
+ * bug and feature are stored in the task table (single table inheritance),
+ * the category column is the discriminator so one select loads a fully typed task.
+ * bug and feature share the "task" cache region, used when the l2cache profile is active
+ */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Constants.TASK_CACHE_REGION)
+@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+@DiscriminatorColumn(name = "category", discriminatorType = DiscriminatorType.INTEGER)
 @Getter
 @Setter
 @ToString
-@AllArgsConstructor
 @NoArgsConstructor
-public class Task extends BaseEntity{
+public abstract class Task extends BaseEntity{
+    // ids are known before the insert, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_id_seq")
+    @SequenceGenerator(name = "task_id_seq", sequenceName = "task_id_seq",
+            allocationSize = Constants.ID_ALLOCATION_SIZE)
     private Long id;
     private String title;
     private String description;
     private Long userId;
-    private int category;
-    private Long categoryId;
     private int status;
+    // incremented by every update, an update of a task changed meanwhile fails
+    @Version
+    private Long version;
 
+    /***
+     * @return category code, using enum from Constants
+     */
+    public abstract int getCategory();
 }
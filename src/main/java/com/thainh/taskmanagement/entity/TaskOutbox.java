@@ -0,0 +1,32 @@
+package com.thainh.taskmanagement.entity;
+
+import com.thainh.taskmanagement.utils.Constants;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/***
+ * task change waiting to be handed to the TaskOutboxHandler beans.
+ * payload is the TaskChangeDto as json, availableAt is moved forward after a failed attempt
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_outbox_id_seq")
+    @SequenceGenerator(name = "task_outbox_id_seq", sequenceName = "task_outbox_id_seq",
+            allocationSize = Constants.ID_ALLOCATION_SIZE)
+    private Long id;
+    private String eventType;
+    private Long taskId;
+    private String payload;
+    private LocalDateTime createdAt;
+    private LocalDateTime availableAt;
+    private int attempts;
+    private String lastError;
+}
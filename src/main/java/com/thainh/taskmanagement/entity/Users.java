@@ -1,12 +1,19 @@
 package com.thainh.taskmanagement.entity;
 
+import com.thainh.taskmanagement.utils.Constants;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Constants.USERS_CACHE_REGION)
 @Getter
 @Setter
 @ToString
@@ -15,7 +22,9 @@ import lombok.*;
 public class Users extends BaseEntity{
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq",
+            allocationSize = Constants.ID_ALLOCATION_SIZE)
     private Long id;
 
     private String username;
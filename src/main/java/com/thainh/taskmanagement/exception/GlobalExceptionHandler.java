@@ -1,10 +1,13 @@
 package com.thainh.taskmanagement.exception;
 
+import com.fasterxml.jackson.databind.exc.InvalidTypeIdException;
 import com.thainh.taskmanagement.dto.ErrorResponseDto;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -30,6 +33,28 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(validationErrors, HttpStatus.BAD_REQUEST);
     }
 
+    /***
+     * task json is read as bug or feature from its category, an unknown category cannot be read.
+     * other parse errors are only logged, their message shows parser internals and the request body
+     */
+    @Override
+    protected ResponseEntity<Object> handleHttpMessageNotReadable(HttpMessageNotReadableException ex, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
+        String message;
+        if (ex.getCause() instanceof InvalidTypeIdException typeIdException) {
+            message = String.format("Invalid %s: [%s]", "category", typeIdException.getTypeId());
+        } else {
+            logger.warn("Unreadable request body of " + request.getDescription(false) + ": " + ex.getMessage());
+            message = "Malformed JSON request";
+        }
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                request.getDescription(false),
+                HttpStatus.BAD_REQUEST,
+                message,
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDto> handleExceptional(Exception exception, WebRequest request) {
         ErrorResponseDto errorResponseDto = new ErrorResponseDto(
@@ -73,4 +98,40 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         );
         return new ResponseEntity<>(errorResponseDto, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(IdempotencyKeyException.class)
+    public ResponseEntity<ErrorResponseDto> handleIdempotencyKeyException(IdempotencyKeyException exception, WebRequest request) {
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                request.getDescription(false),
+                exception.getStatus(),
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorResponseDto, exception.getStatus());
+    }
+
+    @ExceptionHandler(TaskVersionException.class)
+    public ResponseEntity<ErrorResponseDto> handleTaskVersionException(TaskVersionException exception, WebRequest request) {
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                request.getDescription(false),
+                HttpStatus.PRECONDITION_FAILED,
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /***
+     * the task was updated by another request between reading and writing it
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleOptimisticLockingFailureException(OptimisticLockingFailureException exception, WebRequest request) {
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                request.getDescription(false),
+                HttpStatus.CONFLICT,
+                "Task was updated by another request, read it again and retry",
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.CONFLICT);
+    }
 }
@@ -0,0 +1,18 @@
+package com.thainh.taskmanagement.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/***
+ * request cannot be run for its Idempotency-Key: CONFLICT while the first request with the key is running,
+ * UNPROCESSABLE_ENTITY when the key was used for another request
+ */
+@Getter
+public class IdempotencyKeyException extends RuntimeException {
+    private final HttpStatus status;
+
+    public IdempotencyKeyException(HttpStatus status, String message, String key) {
+        super(String.format(message, key));
+        this.status = status;
+    }
+}
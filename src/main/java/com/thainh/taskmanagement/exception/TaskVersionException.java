@@ -0,0 +1,14 @@
+package com.thainh.taskmanagement.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/***
+ * If-Match of an update is not the current version of the task
+ */
+@ResponseStatus(value = HttpStatus.PRECONDITION_FAILED)
+public class TaskVersionException extends RuntimeException {
+    public TaskVersionException(Long id, String version) {
+        super(String.format("Task with field id : '%s' is not at version %s", id, version));
+    }
+}
@@ -2,6 +2,7 @@ package com.thainh.taskmanagement.mapper;
 
 import com.thainh.taskmanagement.dto.BugDto;
 import com.thainh.taskmanagement.dto.FeatureDto;
+import com.thainh.taskmanagement.dto.TaskDto;
 import com.thainh.taskmanagement.entity.Bug;
 import com.thainh.taskmanagement.entity.Feature;
 import com.thainh.taskmanagement.entity.Task;
@@ -12,34 +13,39 @@ import java.time.format.DateTimeFormatter;
 
 public class TaskMapper {
 
-    public static BugDto mapToBugDto(Bug bug, Task task, BugDto bugDto) {
-        bugDto.setId(task.getId());
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+    // formatted dates by epoch day, tasks of a page are mostly created around the same days
+    private static final int DATE_CACHE_SIZE = 1024;
+    private static final FormattedDate[] DATE_CACHE = new FormattedDate[DATE_CACHE_SIZE];
+
+    private record FormattedDate(long epochDay, String text) {
+    }
+
+    /***
+     * @param task bug or feature
+     * @return bug or feature dto, null for another type
+     */
+    public static TaskDto mapToDto(Task task) {
+        if (task instanceof Bug bug) {
+            return mapToBugDto(bug, new BugDto());
+        } else if (task instanceof Feature feature) {
+            return mapToFeatureDto(feature, new FeatureDto());
+        }
+        return null;
+    }
+
+    public static BugDto mapToBugDto(Bug bug, BugDto bugDto) {
+        mapToTaskDto(bug, bugDto);
         bugDto.setSeverity(bug.getSeverity());
         bugDto.setStepsToReproduce(bug.getStepsToReproduce());
         bugDto.setExpectedResult(bug.getExpectedResult());
         bugDto.setActualResult(bug.getActualResult());
-        bugDto.setTitle(task.getTitle());
-        bugDto.setDescription(task.getDescription());
-        bugDto.setUserId(task.getUserId());
-        bugDto.setCategory(task.getCategory());
-        bugDto.setCategoryId(task.getCategoryId());
-        bugDto.setStatus(task.getStatus());
-        DateTimeFormatter df = DateTimeFormatter.ofPattern("yyyy/MM/dd");
-        bugDto.setCreatedAt(task.getCreatedAt().format(df));
+        bugDto.setCreatedAt(formatDate(bug.getCreatedAt().toLocalDate()));
         return bugDto;
     }
 
-    public static Task mapToTask(BugDto bugDto, Task task) {
-        task.setTitle(bugDto.getTitle());
-        task.setDescription(bugDto.getDescription());
-        task.setUserId(bugDto.getUserId());
-        task.setCategory(bugDto.getCategory());
-        task.setCategoryId(bugDto.getCategoryId());
-        task.setStatus(bugDto.getStatus());
-        return task;
-    }
-
     public static Bug mapToBug(BugDto bugDto, Bug bug) {
+        mapToTask(bugDto, bug);
         bug.setSeverity(bugDto.getSeverity());
         bug.setStepsToReproduce(bugDto.getStepsToReproduce());
         bug.setExpectedResult(bugDto.getExpectedResult());
@@ -47,35 +53,55 @@ public class TaskMapper {
         return bug;
     }
 
-    public static FeatureDto mapToFeatureDto(Feature feature, Task task, FeatureDto featureDto) {
-        featureDto.setId(task.getId());
-        DateTimeFormatter sdf = DateTimeFormatter.ofPattern("yyyy/MM/dd");
-        featureDto.setDeadline(feature.getDeadline().format(sdf));
-        featureDto.setTitle(task.getTitle());
+    public static FeatureDto mapToFeatureDto(Feature feature, FeatureDto featureDto) {
+        mapToTaskDto(feature, featureDto);
+        featureDto.setDeadline(formatDate(feature.getDeadline()));
         featureDto.setBusinessValue(feature.getBusinessValue());
-        featureDto.setDescription(task.getDescription());
-        featureDto.setUserId(task.getUserId());
-        featureDto.setCategory(task.getCategory());
-        featureDto.setCategoryId(task.getCategoryId());
-        featureDto.setStatus(task.getStatus());
-        featureDto.setCreatedAt(task.getCreatedAt().format(sdf));
+        featureDto.setCreatedAt(formatDate(feature.getCreatedAt().toLocalDate()));
         return featureDto;
     }
 
-    public static Task mapToTask(FeatureDto featureDto, Task task) {
-        task.setDescription(featureDto.getDescription());
-        task.setTitle(featureDto.getTitle());
-        task.setUserId(featureDto.getUserId());
-        task.setCategory(featureDto.getCategory());
-        task.setCategoryId(featureDto.getCategoryId());
-        task.setStatus(featureDto.getStatus());
-        return task;
-    }
-
     public static Feature mapToFeature(FeatureDto featureDto, Feature feature) throws ParseException {
+        mapToTask(featureDto, feature);
         feature.setBusinessValue(featureDto.getBusinessValue());
-        DateTimeFormatter sdf = DateTimeFormatter.ofPattern("yyyy/MM/dd");
-        feature.setDeadline(LocalDate.parse(featureDto.getDeadline(), sdf));
+        feature.setDeadline(LocalDate.parse(featureDto.getDeadline(), DATE_FORMATTER));
         return feature;
     }
+
+    private static void mapToTaskDto(Task task, TaskDto taskDto) {
+        taskDto.setId(task.getId());
+        taskDto.setTitle(task.getTitle());
+        taskDto.setDescription(task.getDescription());
+        taskDto.setUserId(task.getUserId());
+        taskDto.setCategory(task.getCategory());
+        // bug and feature details live in the task row, so the category id is the task id
+        taskDto.setCategoryId(task.getId());
+        taskDto.setStatus(task.getStatus());
+        taskDto.setVersion(task.getVersion());
+    }
+
+    private static void mapToTask(TaskDto taskDto, Task task) {
+        task.setTitle(taskDto.getTitle());
+        task.setDescription(taskDto.getDescription());
+        task.setUserId(taskDto.getUserId());
+        task.setStatus(taskDto.getStatus());
+    }
+
+    /***
+     * format as yyyy/MM/dd, the text is reused for dates already formatted.
+     * entries are immutable, a lost write between threads only means formatting again
+     * @param date date to format
+     * @return formatted date
+     */
+    private static String formatDate(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        int slot = (int) Math.floorMod(epochDay, DATE_CACHE_SIZE);
+        FormattedDate cached = DATE_CACHE[slot];
+        if (cached != null && cached.epochDay() == epochDay) {
+            return cached.text();
+        }
+        String text = DATE_FORMATTER.format(date);
+        DATE_CACHE[slot] = new FormattedDate(epochDay, text);
+        return text;
+    }
 }
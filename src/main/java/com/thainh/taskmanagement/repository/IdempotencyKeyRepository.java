@@ -0,0 +1,85 @@
+package com.thainh.taskmanagement.repository;
+
+import com.thainh.taskmanagement.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /***
+     * @param expiredBefore rows created before are expired
+     * @return response or running request of the key, not expired
+     */
+    @Query(value = """
+            SELECT * FROM idempotency_key
+            WHERE idempotency_key = :key AND created_at >= :expiredBefore
+            """, nativeQuery = true)
+    Optional<IdempotencyKey> findActive(@Param("key") String key,
+                                        @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    /***
+     * take the key for a request about to run, in one statement so only one of concurrent requests gets it.
+     * an expired key, or a key whose request never stored a response (stale), is taken over.
+     * now is the token of the claim, complete and release only change the row while it still has it
+     * @return 1 if the key was taken, 0 if another request holds it or has already answered
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO idempotency_key (idempotency_key, api_path, request_hash, created_at)
+            VALUES (:key, :apiPath, :requestHash, :now)
+            ON CONFLICT (idempotency_key) DO UPDATE
+            SET api_path      = EXCLUDED.api_path,
+                request_hash  = EXCLUDED.request_hash,
+                status_code   = NULL,
+                response_body = NULL,
+                created_at    = EXCLUDED.created_at
+            WHERE idempotency_key.created_at < :expiredBefore
+               OR (idempotency_key.status_code IS NULL AND idempotency_key.created_at < :staleBefore)
+            """, nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("apiPath") String apiPath,
+              @Param("requestHash") String requestHash,
+              @Param("now") LocalDateTime now,
+              @Param("expiredBefore") LocalDateTime expiredBefore,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    /***
+     * store the response of the claim taken at claimedAt
+     * @return 0 if a retry took the key over meanwhile, its row is left alone
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE idempotency_key
+            SET status_code = :statusCode, response_body = :responseBody
+            WHERE idempotency_key = :key AND created_at = :claimedAt AND status_code IS NULL
+            """, nativeQuery = true)
+    int complete(@Param("key") String key,
+                 @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("statusCode") int statusCode,
+                 @Param("responseBody") String responseBody);
+
+    /***
+     * give the key of the claim taken at claimedAt back when its request failed, so it can be retried
+     * @return 0 if a retry took the key over meanwhile, its row is left alone
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM idempotency_key
+            WHERE idempotency_key = :key AND created_at = :claimedAt AND status_code IS NULL
+            """, nativeQuery = true)
+    int release(@Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_key WHERE created_at < :expiredBefore", nativeQuery = true)
+    int deleteExpired(@Param("expiredBefore") LocalDateTime expiredBefore);
+}
@@ -0,0 +1,42 @@
+package com.thainh.taskmanagement.repository;
+
+import com.thainh.taskmanagement.entity.TaskOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TaskOutboxRepository extends JpaRepository<TaskOutbox, Long> {
+
+    /***
+     * lock the oldest rows due for dispatch. rows locked by another dispatcher are skipped, not waited for,
+     * so dispatchers of several instances drain different rows at the same time.
+     * the locks are held until the calling transaction ends
+     * @param now rows available at or before are due
+     * @param maxAttempts rows failed this many times are left for inspection
+     * @param limit batch size
+     * @return locked rows, oldest first
+     */
+    @Query(value = """
+            SELECT * FROM task_outbox
+            WHERE available_at <= :now AND attempts < :maxAttempts
+            ORDER BY available_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<TaskOutbox> lockDue(@Param("now") LocalDateTime now,
+                             @Param("maxAttempts") int maxAttempts,
+                             @Param("limit") int limit);
+
+    /***
+     * jpql, not native: a native delete would evict every second-level cache region
+     * @param ids dispatched rows
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM TaskOutbox o WHERE o.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
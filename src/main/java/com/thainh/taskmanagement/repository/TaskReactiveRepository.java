@@ -0,0 +1,133 @@
+package com.thainh.taskmanagement.repository;
+
+import com.thainh.taskmanagement.entity.Bug;
+import com.thainh.taskmanagement.entity.Feature;
+import com.thainh.taskmanagement.entity.Task;
+import com.thainh.taskmanagement.utils.Constants;
+import io.r2dbc.spi.Readable;
+import lombok.AllArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/***
+ * non-blocking reads of the task table over r2dbc, same sql as TaskRepository.
+ * r2dbc has no inheritance mapping, rows are read as Bug or Feature from the category column.
+ * rows are fetched EXPORT_FETCH_SIZE at a time as the subscriber asks for them
+ */
+@Repository
+@AllArgsConstructor
+public class TaskReactiveRepository {
+
+    private static final String SELECT_TASK = """
+            SELECT t.id, t.title, t.description, t.user_id, t.category, t.status,
+                   t.created_at, t.updated_at, t.created_by, t.updated_by,
+                   t.severity, t.steps_to_reproduce, t.expected_result, t.actual_result,
+                   t.business_value, t.deadline, t.version
+            FROM task t
+            """;
+
+    private DatabaseClient databaseClient;
+
+    public Mono<Task> findById(Long id) {
+        return databaseClient.sql(SELECT_TASK + "WHERE t.id = :id")
+                .bind("id", id)
+                .map(TaskReactiveRepository::mapRow)
+                .one();
+    }
+
+    /***
+     * @return all tasks, newest first
+     */
+    public Flux<Task> findAllByOrderByCreatedAtDesc() {
+        return databaseClient.sql(SELECT_TASK + "ORDER BY t.created_at DESC, t.id DESC")
+                .filter(statement -> statement.fetchSize(Constants.EXPORT_FETCH_SIZE))
+                .map(TaskReactiveRepository::mapRow)
+                .all();
+    }
+
+    /***
+     * page of TaskRepository.searchTasks, without the count
+     * @return tasks of the page, newest first
+     */
+    public Flux<Task> searchTasks(Integer status, Long userId, String title, String description,
+                                  int limit, long offset) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(SELECT_TASK + TaskRepository.SEARCH_FILTER
+                        + "ORDER BY t.created_at DESC, t.id DESC LIMIT :limit OFFSET :offset")
+                .bind("limit", limit)
+                .bind("offset", offset);
+        spec = bind(spec, "status", status, Integer.class);
+        spec = bind(spec, "userId", userId, Long.class);
+        spec = bind(spec, "title", title, String.class);
+        spec = bind(spec, "description", description, String.class);
+        return spec.filter(statement -> statement.fetchSize(Constants.EXPORT_FETCH_SIZE))
+                .map(TaskReactiveRepository::mapRow)
+                .all();
+    }
+
+    /***
+     * page of TaskRepository.searchTasksByText, without the count
+     * @param text words to search, web search syntax ("quoted phrase", -excluded, or)
+     * @return tasks of the page, best matches first
+     */
+    public Flux<Task> searchTasksByText(Integer status, Long userId, String text, int limit, long offset) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(SELECT_TASK + TaskRepository.TEXT_SEARCH_FILTER
+                        + TaskRepository.TEXT_SEARCH_ORDER + "LIMIT :limit OFFSET :offset")
+                .bind("text", text)
+                .bind("limit", limit)
+                .bind("offset", offset);
+        spec = bind(spec, "status", status, Integer.class);
+        spec = bind(spec, "userId", userId, Long.class);
+        return spec.filter(statement -> statement.fetchSize(Constants.EXPORT_FETCH_SIZE))
+                .map(TaskReactiveRepository::mapRow)
+                .all();
+    }
+
+    public Mono<Boolean> existsUserById(Long userId) {
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM users WHERE id = :id)")
+                .bind("id", userId)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    // a null parameter does not filter, it still needs a type
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                          Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static Task mapRow(Readable row) {
+        Task task;
+        Integer category = row.get("category", Integer.class);
+        if (category != null && category == Constants.CATEGORY.BUG.getCode()) {
+            Bug bug = new Bug();
+            Integer severity = row.get("severity", Integer.class);
+            bug.setSeverity(severity == null ? 0 : severity);
+            bug.setStepsToReproduce(row.get("steps_to_reproduce", String.class));
+            bug.setExpectedResult(row.get("expected_result", String.class));
+            bug.setActualResult(row.get("actual_result", String.class));
+            task = bug;
+        } else {
+            Feature feature = new Feature();
+            feature.setBusinessValue(row.get("business_value", String.class));
+            feature.setDeadline(row.get("deadline", LocalDate.class));
+            task = feature;
+        }
+        task.setId(row.get("id", Long.class));
+        task.setTitle(row.get("title", String.class));
+        task.setDescription(row.get("description", String.class));
+        task.setUserId(row.get("user_id", Long.class));
+        Integer status = row.get("status", Integer.class);
+        task.setStatus(status == null ? 0 : status);
+        task.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        task.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        task.setCreatedBy(row.get("created_by", String.class));
+        task.setUpdatedBy(row.get("updated_by", String.class));
+        task.setVersion(row.get("version", Long.class));
+        return task;
+    }
+}
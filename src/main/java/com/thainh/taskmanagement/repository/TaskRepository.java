@@ -1,31 +1,103 @@
 package com.thainh.taskmanagement.repository;
 
+import com.thainh.taskmanagement.entity.Bug;
+import com.thainh.taskmanagement.entity.Feature;
 import com.thainh.taskmanagement.entity.Task;
+import com.thainh.taskmanagement.utils.Constants;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-    Page<Task> findAllByOrderByCreatedAtDesc(Pageable pageable);
+public interface TaskRepository extends JpaRepository<Task, Long> {
 
-    @Query(value = """
-            SELECT * FROM task t
+    /***
+     * filter of the search queries, a null parameter does not filter
+     */
+    String SEARCH_FILTER = """
             WHERE (:status IS NULL OR t.status = :status)
               AND (:userId IS NULL OR t.user_id = :userId)
               AND (:title IS NULL OR t.title ILIKE CONCAT('%', :title, '%'))
               AND (:description IS NULL OR t.description ILIKE CONCAT('%', :description, '%'))
-            ORDER BY t.created_at
-            """,
-            countQuery = """
-                    SELECT COUNT(*) FROM task t
-                    WHERE (:status IS NULL OR t.status = :status)
-                      AND (:userId IS NULL OR t.user_id = :userId)
-                      AND (:title IS NULL OR t.title ILIKE CONCAT('%', :title, '%'))
-                      AND (:description IS NULL OR t.description ILIKE CONCAT('%', :description, '%'))
-                    """,
+            """;
+
+    /***
+     * filter of the full-text search, title words are weighted above description words, see V8 migration
+     */
+    String TEXT_SEARCH_FILTER = """
+            WHERE (:status IS NULL OR t.status = :status)
+              AND (:userId IS NULL OR t.user_id = :userId)
+              AND t.search_vector @@ websearch_to_tsquery('simple', :text)
+            """;
+
+    String TEXT_SEARCH_ORDER = """
+            ORDER BY ts_rank(t.search_vector, websearch_to_tsquery('simple', :text)) DESC,
+                     t.created_at DESC, t.id DESC
+            """;
+
+    /***
+     * what every update of a task sets: next version, and what auditing sets,
+     * native updates do not go through the entity listener
+     */
+    String SET_UPDATED = """
+                version            = version + 1,
+                updated_at         = :#{T(java.time.LocalDateTime).now()},
+                updated_by         = :#{@auditAwareImpl.currentAuditor.orElse(null)},
+            """;
+
+    /***
+     * columns every task has, written by switchCategory
+     */
+    String SWITCH_CATEGORY = """
+            UPDATE task
+            SET category           = :#{#task.category},
+                title              = :#{#task.title},
+                description        = :#{#task.description},
+                user_id            = :#{#task.userId},
+                status             = :#{#task.status},
+            """ + SET_UPDATED;
+
+    Page<Task> findAllByOrderByCreatedAtDesc(Pageable pageable);
+
+    /***
+     * version of a task without loading the task, enough to answer a conditional get
+     * @param id task id
+     * @return version, empty when the task does not exist
+     */
+    @Query("SELECT t.version FROM Task t WHERE t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /***
+     * read all tasks through a forward-only cursor, EXPORT_FETCH_SIZE rows per round trip.
+     * must be consumed and closed inside a transaction
+     * @return tasks ordered by created time descending
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Constants.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Task t ORDER BY t.createdAt DESC, t.id DESC")
+    Stream<Task> streamAllByOrderByCreatedAtDesc();
+
+    /***
+     * newest tasks first. the order is part of the query, pageable must not have a sort:
+     * (user_id, status, created_at, id), (status, created_at, id) and (created_at, id) indexes
+     * return the rows in this order, see V11 migration
+     * @return tasks of the page
+     */
+    @Query(value = "SELECT * FROM task t " + SEARCH_FILTER + "ORDER BY t.created_at DESC, t.id DESC",
+            countQuery = "SELECT COUNT(*) FROM task t " + SEARCH_FILTER,
             nativeQuery = true)
     Page<Task> searchTasks(
             @Param("status") Integer status,
@@ -35,4 +107,193 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
             Pageable pageable
     );
 
+    /***
+     * same page as searchTasks without the count query, one more task is read to know if there is a next page
+     * @return tasks of the page
+     */
+    @Query(value = "SELECT * FROM task t " + SEARCH_FILTER + "ORDER BY t.created_at DESC, t.id DESC",
+            nativeQuery = true)
+    Slice<Task> searchTasksSlice(
+            @Param("status") Integer status,
+            @Param("userId") Long userId,
+            @Param("title") String title,
+            @Param("description") String description,
+            Pageable pageable
+    );
+
+    /***
+     * plan of the searchTasks count, the first line holds the number of rows the planner expects
+     * e.g. "Seq Scan on task t  (cost=0.00..1.01 rows=42 width=4)". nothing is read from the table
+     * @return lines of the plan
+     */
+    @Query(value = "EXPLAIN SELECT 1 FROM task t " + SEARCH_FILTER, nativeQuery = true)
+    List<String> explainSearchTasks(
+            @Param("status") Integer status,
+            @Param("userId") Long userId,
+            @Param("title") String title,
+            @Param("description") String description
+    );
+
+    /***
+     * full-text search over title and description, best matches first
+     * @param text words to search, web search syntax ("quoted phrase", -excluded, or)
+     * @return tasks of the page ordered by rank
+     */
+    @Query(value = "SELECT * FROM task t " + TEXT_SEARCH_FILTER + TEXT_SEARCH_ORDER,
+            countQuery = "SELECT COUNT(*) FROM task t " + TEXT_SEARCH_FILTER,
+            nativeQuery = true)
+    Page<Task> searchTasksByText(
+            @Param("status") Integer status,
+            @Param("userId") Long userId,
+            @Param("text") String text,
+            Pageable pageable
+    );
+
+    /***
+     * keyset page: tasks strictly after the cursor ordered by (created_at, id) descending,
+     * so the cost of a page does not depend on how deep it is
+     * @param cursorCreatedAt created time of the last task of the previous page, null for the first page
+     * @param cursorId id of the last task of the previous page, null for the first page
+     * @param limit max number of tasks
+     * @return tasks of the page
+     */
+    @Query(value = """
+            SELECT * FROM task t
+            """ + SEARCH_FILTER + """
+              AND (CAST(:cursorCreatedAt AS timestamp) IS NULL
+                   OR (t.created_at, t.id) < (CAST(:cursorCreatedAt AS timestamp), CAST(:cursorId AS int8)))
+            ORDER BY t.created_at DESC, t.id DESC
+            LIMIT :limit
+            """,
+            nativeQuery = true)
+    List<Task> searchTasksAfter(
+            @Param("status") Integer status,
+            @Param("userId") Long userId,
+            @Param("title") String title,
+            @Param("description") String description,
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit
+    );
+
+    @Query(value = "SELECT COUNT(*) FROM task t " + SEARCH_FILTER, nativeQuery = true)
+    long countTasks(
+            @Param("status") Integer status,
+            @Param("userId") Long userId,
+            @Param("title") String title,
+            @Param("description") String description
+    );
+
+    /***
+     * change the category of a task in place and write all of its columns in one statement,
+     * the columns of the old category are cleared. feature_version (feature.version before V6) is not
+     * mapped and kept as it is. the persistence context is cleared so the task is reloaded with its new type
+     * @param task bug with the id and the current version of the task
+     * @return number of updated tasks, 0 when the task is not at the version anymore
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = SWITCH_CATEGORY + """
+                severity           = :#{#task.severity},
+                steps_to_reproduce = :#{#task.stepsToReproduce},
+                expected_result    = :#{#task.expectedResult},
+                actual_result      = :#{#task.actualResult},
+                business_value     = NULL,
+                deadline           = NULL
+            WHERE id = :#{#task.id}
+              AND version = :#{#task.version}
+            """,
+            nativeQuery = true)
+    int switchCategory(@Param("task") Bug task);
+
+    /***
+     * same as switchCategory(Bug) for a feature
+     * @param task feature with the id and the current version of the task
+     * @return number of updated tasks, 0 when the task is not at the version anymore
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = SWITCH_CATEGORY + """
+                severity           = NULL,
+                steps_to_reproduce = NULL,
+                expected_result    = NULL,
+                actual_result      = NULL,
+                business_value     = :#{#task.businessValue},
+                deadline           = :#{#task.deadline}
+            WHERE id = :#{#task.id}
+              AND version = :#{#task.version}
+            """,
+            nativeQuery = true)
+    int switchCategory(@Param("task") Feature task);
+
+    /***
+     * delete tasks by id in one statement, the array is one parameter whatever its length
+     * @param ids task ids, unknown ids are skipped
+     * @return number of deleted tasks
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM task t WHERE t.id = ANY(:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") Long[] ids);
+
+    /***
+     * delete the tasks matching the search filter in one statement
+     * @return number of deleted tasks
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM task t " + SEARCH_FILTER, nativeQuery = true)
+    int deleteTasks(
+            @Param("status") Integer status,
+            @Param("userId") Long userId,
+            @Param("title") String title,
+            @Param("description") String description
+    );
+
+    /***
+     * move tasks to a status in one statement, tasks already in the status are not written
+     * @param ids task ids, unknown ids are skipped
+     * @param newStatus status to set, using enum from Constants
+     * @return number of changed tasks
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE task t SET " + SET_UPDATED + """
+                status             = :newStatus
+            WHERE t.id = ANY(:ids)
+              AND t.status <> :newStatus
+            """,
+            nativeQuery = true)
+    int updateStatusByIds(@Param("ids") Long[] ids, @Param("newStatus") int newStatus);
+
+    /***
+     * move the tasks matching the search filter to a status in one statement,
+     * tasks already in the status are not written
+     * @param newStatus status to set, using enum from Constants
+     * @return number of changed tasks
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE task t SET " + SET_UPDATED + """
+                status             = :newStatus
+            """ + SEARCH_FILTER + """
+              AND t.status <> :newStatus
+            """,
+            nativeQuery = true)
+    int updateStatus(
+            @Param("status") Integer status,
+            @Param("userId") Long userId,
+            @Param("title") String title,
+            @Param("description") String description,
+            @Param("newStatus") int newStatus
+    );
+
+    /***
+     * send notifications on a channel in one statement. postgres delivers them to the listeners when
+     * the transaction commits and drops them on rollback, listeners never see a change that was not committed
+     * @param channel channel name
+     * @param payloads one notification each, up to 8000 bytes
+     * @return number of notifications sent
+     */
+    @Query(value = """
+            SELECT count(*)
+            FROM unnest(CAST(:payloads AS text[])) AS p(payload),
+                 LATERAL pg_notify(:channel, p.payload)
+            """,
+            nativeQuery = true)
+    int notifyChannel(@Param("channel") String channel, @Param("payloads") String[] payloads);
 }
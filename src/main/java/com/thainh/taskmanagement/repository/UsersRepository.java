@@ -1,12 +1,28 @@
 package com.thainh.taskmanagement.repository;
 
 import com.thainh.taskmanagement.entity.Users;
+import com.thainh.taskmanagement.utils.Constants;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface UsersRepository extends JpaRepository<Users, Long> {
+    // served from the query cache when the l2cache profile is active
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Users> findAllByOrderByIdAscCreatedAtAsc();
     Optional<Users> findByUsername(String username);
+
+    /***
+     * cached, unknown ids are cached too. evicted by UsersServiceImpl on create and delete
+     * @param id user id
+     * @return true if the user exists
+     */
+    @Override
+    @Cacheable(value = Constants.USER_EXISTS_CACHE, key = "#p0")
+    boolean existsById(Long id);
 }
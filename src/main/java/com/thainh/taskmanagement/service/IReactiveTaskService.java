@@ -0,0 +1,15 @@
+package com.thainh.taskmanagement.service;
+
+import com.thainh.taskmanagement.dto.SearchDto;
+import com.thainh.taskmanagement.dto.TaskDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface IReactiveTaskService {
+
+    Flux<TaskDto> fetchAllTasks();
+
+    Mono<TaskDto> fetchTaskById(Long id);
+
+    Flux<TaskDto> searchTasks(SearchDto searchDto);
+}
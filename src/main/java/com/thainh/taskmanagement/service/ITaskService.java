@@ -1,20 +1,44 @@
 package com.thainh.taskmanagement.service;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.thainh.taskmanagement.dto.SearchDto;
+import com.thainh.taskmanagement.dto.TaskBatchResultDto;
+import com.thainh.taskmanagement.dto.TaskBulkDto;
+import com.thainh.taskmanagement.dto.TaskBulkResultDto;
+import com.thainh.taskmanagement.dto.TaskChangeDto;
+import com.thainh.taskmanagement.dto.TaskDto;
+import com.thainh.taskmanagement.dto.TaskListDto;
 import org.springframework.data.domain.Page;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 
 public interface ITaskService {
 
-    void createTask(ObjectNode taskDto);
+    void createTask(TaskDto taskDto);
+
+    TaskBatchResultDto createTasks(List<TaskDto> taskDtos);
+
+    Page<TaskDto> fetchAllTasks();
+
+    void exportTasks(OutputStream outputStream) throws IOException;
 
-    Page<ObjectNode> fetchAllTasks();
+    long fetchTaskVersion(Long id);
 
-    ObjectNode fetchTaskById(Long id);
+    TaskDto fetchTaskById(Long id);
 
     void deleteTask(Long id);
 
-    void updateTask(Long id, ObjectNode objectNode);
+    TaskBulkResultDto deleteTasks(TaskBulkDto taskBulkDto);
+
+    TaskBulkResultDto updateTasksStatus(TaskBulkDto taskBulkDto);
+
+    void updateTask(Long id, TaskDto taskDto);
+
+    TaskListDto searchTasks(SearchDto searchDto);
+
+    TaskListDto searchTasksAfterCursor(SearchDto searchDto);
 
-    Page<ObjectNode> searchTasks(SearchDto searchDto);
+    Flux<TaskChangeDto> streamTaskChanges(Long userId, Integer status);
 }
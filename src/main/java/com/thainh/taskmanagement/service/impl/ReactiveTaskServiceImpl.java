@@ -0,0 +1,78 @@
+package com.thainh.taskmanagement.service.impl;
+
+import com.thainh.taskmanagement.dto.SearchDto;
+import com.thainh.taskmanagement.dto.TaskDto;
+import com.thainh.taskmanagement.exception.ResourceNotFoundException;
+import com.thainh.taskmanagement.exception.TaskRequestException;
+import com.thainh.taskmanagement.mapper.TaskMapper;
+import com.thainh.taskmanagement.repository.TaskReactiveRepository;
+import com.thainh.taskmanagement.service.IReactiveTaskService;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/***
+ * read path of TaskServiceImpl over r2dbc, no thread waits for the database.
+ * tasks are mapped and written one by one as they are read, counts and keyset pages stay on /api/search
+ */
+@Service
+@AllArgsConstructor
+public class ReactiveTaskServiceImpl implements IReactiveTaskService {
+
+    private TaskReactiveRepository taskReactiveRepository;
+
+    @Override
+    public Flux<TaskDto> fetchAllTasks() {
+        return taskReactiveRepository.findAllByOrderByCreatedAtDesc()
+                .mapNotNull(TaskMapper::mapToDto);
+    }
+
+    @Override
+    public Mono<TaskDto> fetchTaskById(Long id) {
+        return taskReactiveRepository.findById(id)
+                .mapNotNull(TaskMapper::mapToDto)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Task", "id", "" + id)));
+    }
+
+    /***
+     * filter or full-text search of one page, same order as TaskServiceImpl.searchTasks
+     * @param searchDto filter and page
+     * @return tasks of the page
+     */
+    @Override
+    public Flux<TaskDto> searchTasks(SearchDto searchDto) {
+        int limit = searchDto.getPageSize();
+        long offset = (long) searchDto.getPageNum() * limit;
+        Flux<TaskDto> tasks;
+        if (searchDto.isFullText()) {
+            String text = Stream.of(searchDto.getTitle(), searchDto.getDescription())
+                    .filter(value -> value != null && !value.isBlank())
+                    .collect(Collectors.joining(" "));
+            if (text.isEmpty()) {
+                return Flux.error(new TaskRequestException("Validation %s failed: %s", "title",
+                        "Title or description is required in full-text mode"));
+            }
+            tasks = taskReactiveRepository.searchTasksByText(searchDto.getStatus(), searchDto.getUserId(),
+                            text, limit, offset)
+                    .mapNotNull(TaskMapper::mapToDto);
+        } else {
+            tasks = taskReactiveRepository.searchTasks(searchDto.getStatus(), searchDto.getUserId(),
+                            searchDto.getTitle(), searchDto.getDescription(), limit, offset)
+                    .mapNotNull(TaskMapper::mapToDto);
+        }
+        if (searchDto.getUserId() == null) {
+            return tasks;
+        }
+        return checkUserExists(searchDto.getUserId()).thenMany(tasks);
+    }
+
+    private Mono<Void> checkUserExists(Long userId) {
+        return taskReactiveRepository.existsUserById(userId)
+                .flatMap(exists -> exists ? Mono.<Void>empty()
+                        : Mono.error(new ResourceNotFoundException("Users", "id", "" + userId)));
+    }
+}
@@ -1,190 +1,563 @@
 package com.thainh.taskmanagement.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.thainh.taskmanagement.dto.BugDto;
 import com.thainh.taskmanagement.dto.FeatureDto;
 import com.thainh.taskmanagement.dto.SearchDto;
+import com.thainh.taskmanagement.dto.TaskBatchItemDto;
+import com.thainh.taskmanagement.dto.TaskBatchResultDto;
+import com.thainh.taskmanagement.dto.TaskBulkDto;
+import com.thainh.taskmanagement.dto.TaskBulkResultDto;
+import com.thainh.taskmanagement.dto.TaskChangeDto;
+import com.thainh.taskmanagement.dto.TaskDto;
+import com.thainh.taskmanagement.dto.TaskListDto;
 import com.thainh.taskmanagement.entity.Bug;
 import com.thainh.taskmanagement.entity.Feature;
 import com.thainh.taskmanagement.entity.Task;
 import com.thainh.taskmanagement.exception.ResourceNotFoundException;
 import com.thainh.taskmanagement.exception.TaskRequestException;
+import com.thainh.taskmanagement.exception.TaskVersionException;
 import com.thainh.taskmanagement.mapper.TaskMapper;
-import com.thainh.taskmanagement.repository.BugRepository;
-import com.thainh.taskmanagement.repository.FeatureRepository;
 import com.thainh.taskmanagement.repository.TaskRepository;
 import com.thainh.taskmanagement.repository.UsersRepository;
 import com.thainh.taskmanagement.service.ITaskService;
 import com.thainh.taskmanagement.utils.Constants;
+import com.thainh.taskmanagement.utils.KeysetCursor;
+import com.thainh.taskmanagement.utils.TaskChangeFeed;
+import com.thainh.taskmanagement.utils.TaskOutboxDispatcher;
+import com.thainh.taskmanagement.utils.TaskSearchCache;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.*;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.text.ParseException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
 public class TaskServiceImpl implements ITaskService {
 
-    private final FeatureRepository featureRepository;
+    // number of rows of the top plan node, e.g. "Seq Scan on task t  (cost=0.00..1.01 rows=42 width=4)"
+    private static final Pattern PLAN_ROWS = Pattern.compile(" rows=(\\d+)");
+
     private TaskRepository taskRepository;
-    private BugRepository bugRepository;
     private UsersRepository usersRepository;
     private Validator validator;
     private ObjectMapper mapper;
+    private EntityManager entityManager;
+    private TaskSearchCache taskSearchCache;
+    private TaskChangeFeed taskChangeFeed;
+    private TaskOutboxDispatcher taskOutboxDispatcher;
 
-    private static final String CATEGORY = "category";
-
+    /***
+     * repeated searches are answered from TaskSearchCache until a task they can contain is written
+     * @param searchDto filter, page and count mode
+     * @return tasks of the page and the count of the chosen mode
+     */
     @Override
-    public Page<ObjectNode> searchTasks(SearchDto searchDto) {
+    public TaskListDto searchTasks(SearchDto searchDto) {
         if (searchDto.getUserId() != null) {
-            usersRepository.findById(searchDto.getUserId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Users", "id", "" + searchDto.getUserId()));
+            checkUserExists(searchDto.getUserId());
+        }
+        return taskSearchCache.get(searchDto, () -> findTasks(searchDto));
+    }
+
+    /***
+     * filter search. the count query repeats the whole filter, countMode decides if it runs:
+     * EXACT counts, NONE only tells if there is a next page, ESTIMATED takes the count the planner expects
+     * @param searchDto filter, page and count mode
+     * @return tasks of the page and the count of the chosen mode
+     */
+    private TaskListDto findTasks(SearchDto searchDto) {
+        if (searchDto.isFullText()) {
+            return searchTasksByText(searchDto);
+        }
+        // order by created time is part of the query
+        Pageable pageable = PageRequest.of(searchDto.getPageNum(), searchDto.getPageSize());
+        Constants.COUNT_MODE countMode = searchDto.getCountMode();
+        if (countMode == Constants.COUNT_MODE.EXACT) {
+            Page<Task> page = taskRepository.searchTasks(
+                    searchDto.getStatus(),
+                    searchDto.getUserId(),
+                    searchDto.getTitle(),
+                    searchDto.getDescription(),
+                    pageable);
+            return toTaskListDto(page, countMode);
         }
-        Pageable pageable = PageRequest.of(searchDto.getPageNum(),
-                searchDto.getPageSize(), Sort.by("created_at").descending());
-        Page<Task> page = taskRepository.searchTasks(
+
+        Slice<Task> slice = taskRepository.searchTasksSlice(
                 searchDto.getStatus(),
                 searchDto.getUserId(),
                 searchDto.getTitle(),
                 searchDto.getDescription(),
                 pageable);
+        List<TaskDto> results = mapToDtos(slice.getContent());
+        if (countMode == Constants.COUNT_MODE.NONE) {
+            return new TaskListDto(results, null, null, null, countMode.name(), slice.hasNext());
+        }
+        long read = pageable.getOffset() + slice.getNumberOfElements();
+        long totalTask;
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+            // last page was read, the count is known without asking the planner
+            totalTask = read;
+        } else {
+            // an estimate can be lower than what has been read already
+            totalTask = Math.max(estimateCount(searchDto), read + (slice.hasNext() ? 1 : 0));
+        }
+        int totalPage = (int) ((totalTask + pageable.getPageSize() - 1) / pageable.getPageSize());
+        return new TaskListDto(results, totalTask, totalPage, null, countMode.name(), slice.hasNext());
+    }
 
-        return getCategory(page);
+    /***
+     * rows the planner expects for the filter, from the table statistics (pg_class, pg_statistic)
+     * @param searchDto filter
+     * @return estimated number of matching tasks
+     */
+    private long estimateCount(SearchDto searchDto) {
+        List<String> plan = taskRepository.explainSearchTasks(
+                searchDto.getStatus(),
+                searchDto.getUserId(),
+                searchDto.getTitle(),
+                searchDto.getDescription());
+        Matcher matcher = PLAN_ROWS.matcher(plan.isEmpty() ? "" : plan.get(0));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    /***
+     * full-text search, title and description are searched together and ranked by relevance
+     * @param searchDto filter and page
+     * @return tasks of the page, best matches first
+     */
+    private TaskListDto searchTasksByText(SearchDto searchDto) {
+        String text = Stream.of(searchDto.getTitle(), searchDto.getDescription())
+                .filter(value -> value != null && !value.isBlank())
+                .collect(Collectors.joining(" "));
+        if (text.isEmpty()) {
+            throw new TaskRequestException("Validation %s failed: %s", "title", "Title or description is required in full-text mode");
+        }
+        // order by rank is part of the query
+        Pageable pageable = PageRequest.of(searchDto.getPageNum(), searchDto.getPageSize());
+        Page<Task> page = taskRepository.searchTasksByText(
+                searchDto.getStatus(),
+                searchDto.getUserId(),
+                text,
+                pageable);
+
+        return toTaskListDto(page, Constants.COUNT_MODE.EXACT);
+    }
+
+    /***
+     * keyset pagination, the total is only counted when asked for
+     * @param searchDto filter, page size and cursor of the previous page
+     * @return tasks of the page and the cursor of the next one
+     */
+    @Override
+    public TaskListDto searchTasksAfterCursor(SearchDto searchDto) {
+        if (searchDto.getUserId() != null) {
+            checkUserExists(searchDto.getUserId());
+        }
+        KeysetCursor cursor = KeysetCursor.decode(searchDto.getCursor());
+        int pageSize = searchDto.getPageSize();
+        // read one more task to know if there is a next page
+        List<Task> tasks = taskRepository.searchTasksAfter(
+                searchDto.getStatus(),
+                searchDto.getUserId(),
+                searchDto.getTitle(),
+                searchDto.getDescription(),
+                cursor == null ? null : cursor.createdAt(),
+                cursor == null ? null : cursor.id(),
+                pageSize + 1);
+        String nextCursor = null;
+        if (tasks.size() > pageSize) {
+            tasks = tasks.subList(0, pageSize);
+            Task last = tasks.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        Long totalTask = null;
+        if (searchDto.isIncludeTotal()) {
+            totalTask = taskRepository.countTasks(
+                    searchDto.getStatus(),
+                    searchDto.getUserId(),
+                    searchDto.getTitle(),
+                    searchDto.getDescription());
+        }
+        Constants.COUNT_MODE countMode = searchDto.isIncludeTotal()
+                ? Constants.COUNT_MODE.EXACT : Constants.COUNT_MODE.NONE;
+        return new TaskListDto(mapToDtos(tasks), totalTask, null, nextCursor, countMode.name(), nextCursor != null);
     }
 
     /***
-     * user transactional to roll back if error
+     * user transactional to roll back if error.
+     * same category: the request is copied onto the loaded task, only changed columns are updated
+     * and nothing is sent when no value changed. bug <-> feature: one update writes the new category
+     * with all of its columns, the task is not loaded again.
+     * the version of taskDto, when set, must be the current version of the task
      * @param id task id
      * @param taskDto information for update
      */
     @Override
     @Transactional
-    public void updateTask(Long id, ObjectNode taskDto) {
+    public void updateTask(Long id, TaskDto taskDto) {
         Task task = taskRepository.findById(id).
                 orElseThrow(() -> new ResourceNotFoundException("Task", "id", "" + id));
-        Long userId = taskDto.get("userId").asLong();
-        usersRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Users", "id", "" + userId));
-        int category = taskDto.get(CATEGORY).asInt();
-        // check category
-        if (Constants.CATEGORY.BUG.getCode() == category) {
-            if (task.getCategory() != category) {
-                //need to delete old feature
-                Feature feature = featureRepository.findById(task.getCategoryId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Task", "id", "" + id));
-                featureRepository.delete(feature);
-                //create new bug
-                upsertBug(taskDto, null, task.getId());
-            } else {
-                upsertBug(taskDto, task.getCategoryId(), task.getId());
-            }
-        } else if (Constants.CATEGORY.FEATURE.getCode() == category) {
-            if (task.getCategory() != category) {
-                //need to delete old bug
-                Bug bug = bugRepository.findById(task.getCategoryId())
-                        .orElseThrow(() -> new ResourceNotFoundException("Task", "id", "" + id));
-                bugRepository.delete(bug);
-                //create new feature
-                upsertFeature(taskDto, null, task.getId());
-            } else {
-                upsertFeature(taskDto, task.getCategoryId(), task.getId());
+        if (taskDto.getVersion() != null && !taskDto.getVersion().equals(task.getVersion())) {
+            throw new TaskVersionException(id, "" + taskDto.getVersion());
+        }
+        Long previousUserId = task.getUserId();
+        int previousStatus = task.getStatus();
+        boolean sameCategory = task.getCategory() == taskDto.getCategory();
+        // validated before the user is looked up, a task without userId is a validation error
+        Task mapped = mapToEntity(taskDto, sameCategory ? task : null);
+        checkUserExists(taskDto.getUserId());
+        // searches the task is leaving
+        taskSearchCache.evict(previousUserId, previousStatus);
+        if (!sameCategory) {
+            mapped.setId(task.getId());
+            mapped.setVersion(task.getVersion());
+            int updated = mapped instanceof Bug bug
+                    ? taskRepository.switchCategory(bug)
+                    : taskRepository.switchCategory((Feature) mapped);
+            if (updated == 0) {
+                throw new ObjectOptimisticLockingFailureException(Task.class, id);
             }
-        } else {
-            throw new TaskRequestException("Invalid category%s: [%s]", "", "" + category);
         }
+        taskSearchCache.evict(taskDto.getUserId(), taskDto.getStatus());
+        publish(new TaskChangeDto(Constants.TASK_CHANGE.UPDATED.name(), id,
+                taskDto.getUserId(), taskDto.getStatus(), previousUserId, previousStatus, null));
     }
 
     @Override
+    @Transactional
     public void deleteTask(Long id) {
         Task task = taskRepository.findById(id).
                 orElseThrow(() -> new ResourceNotFoundException("Task", "id", "" + id));
-        if (Constants.CATEGORY.BUG.getCode() == task.getCategory()) {
-            Bug bug = bugRepository.findById(task.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Task", "id", "" + id));
-            bugRepository.delete(bug);
-        } else if (Constants.CATEGORY.FEATURE.getCode() == task.getCategory()) {
-            Feature feature = featureRepository.findById(task.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Task", "id", "" + id));
-            featureRepository.delete(feature);
-        }
         taskRepository.delete(task);
+        taskSearchCache.evict(task.getUserId(), task.getStatus());
+        publish(new TaskChangeDto(Constants.TASK_CHANGE.DELETED.name(), id,
+                task.getUserId(), task.getStatus(), null, null, null));
+    }
+
+    /***
+     * delete the tasks selected by ids or by filter in one statement, tasks are not loaded
+     * @param taskBulkDto ids or filter
+     * @return number of deleted tasks
+     */
+    @Override
+    @Transactional
+    public TaskBulkResultDto deleteTasks(TaskBulkDto taskBulkDto) {
+        int deleted;
+        // users and statuses of the deleted tasks, any when selected by ids
+        Long userId = null;
+        Integer status = null;
+        if (isSelectedByIds(taskBulkDto)) {
+            deleted = taskRepository.deleteByIds(taskBulkDto.getIds().toArray(Long[]::new));
+        } else {
+            SearchDto filter = taskBulkDto.getFilter();
+            userId = filter.getUserId();
+            status = filter.getStatus();
+            deleted = taskRepository.deleteTasks(
+                    filter.getStatus(),
+                    filter.getUserId(),
+                    filter.getTitle(),
+                    filter.getDescription());
+        }
+        taskSearchCache.evictAll();
+        if (deleted > 0) {
+            publish(new TaskChangeDto(Constants.TASK_CHANGE.BULK_DELETED.name(), null,
+                    userId, status, null, null, deleted));
+        }
+        return new TaskBulkResultDto(deleted);
     }
 
+    /***
+     * move the tasks selected by ids or by filter to a status in one statement, tasks are not loaded
+     * @param taskBulkDto ids or filter, and the new status
+     * @return number of changed tasks
+     */
     @Override
-    public ObjectNode fetchTaskById(Long id) {
+    @Transactional
+    public TaskBulkResultDto updateTasksStatus(TaskBulkDto taskBulkDto) {
+        boolean selectedByIds = isSelectedByIds(taskBulkDto);
+        if (taskBulkDto.getStatus() == null) {
+            throw new TaskRequestException("Validation %s failed: %s", "status", "Status is required");
+        }
+        int updated;
+        // users and previous statuses of the changed tasks, any when selected by ids
+        Long userId = null;
+        Integer previousStatus = null;
+        if (selectedByIds) {
+            updated = taskRepository.updateStatusByIds(taskBulkDto.getIds().toArray(Long[]::new),
+                    taskBulkDto.getStatus());
+        } else {
+            SearchDto filter = taskBulkDto.getFilter();
+            userId = filter.getUserId();
+            previousStatus = filter.getStatus();
+            updated = taskRepository.updateStatus(
+                    filter.getStatus(),
+                    filter.getUserId(),
+                    filter.getTitle(),
+                    filter.getDescription(),
+                    taskBulkDto.getStatus());
+        }
+        taskSearchCache.evictAll();
+        if (updated > 0) {
+            // tasks of any status may have left it, the change then concerns every status
+            publish(new TaskChangeDto(Constants.TASK_CHANGE.BULK_STATUS_CHANGED.name(), null,
+                    userId, previousStatus == null ? null : taskBulkDto.getStatus(), null, previousStatus, updated));
+        }
+        return new TaskBulkResultDto(updated);
+    }
+
+    /***
+     * @param id task id
+     * @return current version, the task is not loaded
+     */
+    @Override
+    public long fetchTaskVersion(Long id) {
+        return taskRepository.findVersionById(id).
+                orElseThrow(() -> new ResourceNotFoundException("Task", "id", "" + id));
+    }
+
+    @Override
+    public TaskDto fetchTaskById(Long id) {
         Task task = taskRepository.findById(id).
                 orElseThrow(() -> new ResourceNotFoundException("Task", "id", "" + id));
-        if (Constants.CATEGORY.BUG.getCode() == task.getCategory()) {
-            Bug bug = bugRepository.findById(task.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Task", "id", "" + id));
-            BugDto bugDto = TaskMapper.mapToBugDto(bug, task, new BugDto());
-            return mapper.valueToTree(bugDto);
-        } else if (Constants.CATEGORY.FEATURE.getCode() == task.getCategory()) {
-            Feature feature = featureRepository.findById(task.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Task", "id", "" + id));
-            FeatureDto featureDto = TaskMapper.mapToFeatureDto(feature, task, new FeatureDto());
-            return mapper.valueToTree(featureDto);
+        TaskDto taskDto = mapToDto(task);
+        if (taskDto == null) {
+            throw new ResourceNotFoundException("Task", "id", "" + id);
         }
-        throw new ResourceNotFoundException("Task", "id", "" + id);
+        return taskDto;
     }
 
     @Override
-    public Page<ObjectNode> fetchAllTasks() {
+    public Page<TaskDto> fetchAllTasks() {
         Pageable pageable = PageRequest.of(0, Integer.MAX_VALUE, Sort.by("createdAt").descending());
         Page<Task> tasks = taskRepository.findAllByOrderByCreatedAtDesc(pageable);
-        return getCategory(tasks);
+        return mapToDtos(tasks);
     }
 
+    /***
+     * write all tasks as NDJSON, one task per line, while reading them from the database cursor.
+     * tasks are detached once written so memory does not grow with the number of tasks
+     * @param outputStream response stream
+     */
     @Override
-    public void createTask(ObjectNode taskDto) {
-        // check if user is valid
-        Long userId = taskDto.get("userId").asLong();
-        usersRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Users", "id", "" + userId));
-        int category = taskDto.get(CATEGORY).asInt();
-        // check category
-        if (Constants.CATEGORY.BUG.getCode() == category) {
-            upsertBug(taskDto, null, null);
-        } else if (Constants.CATEGORY.FEATURE.getCode() == category) {
-            upsertFeature(taskDto, null, null);
-        } else {
-            throw new TaskRequestException("Invalid category%s: [%s]", "", "" + category);
+    @Transactional(readOnly = true)
+    public void exportTasks(OutputStream outputStream) throws IOException {
+        try (Stream<Task> tasks = taskRepository.streamAllByOrderByCreatedAtDesc();
+             JsonGenerator generator = mapper.createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            Iterator<Task> iterator = tasks.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                Task task = iterator.next();
+                TaskDto dto = mapToDto(task);
+                if (dto != null) {
+                    generator.writeObject(dto);
+                    generator.writeRaw('\n');
+                }
+                entityManager.detach(task);
+                // send what has been read so far, client gets the first rows without waiting for the last ones
+                if (++count % Constants.EXPORT_FETCH_SIZE == 0) {
+                    generator.flush();
+                }
+            }
         }
     }
 
-    private void upsertBug(ObjectNode taskDto, Long bugId, Long taskId) {
-        BugDto bugDto = mapper.convertValue(taskDto, BugDto.class);
-        Set<ConstraintViolation<BugDto>> violations = validator.validate(bugDto);
+    @Override
+    @Transactional
+    public void createTask(TaskDto taskDto) {
+        Task task = mapToEntity(taskDto, null);
+        checkUserExists(taskDto.getUserId());
+        taskRepository.save(task);
+        taskSearchCache.evict(taskDto.getUserId(), taskDto.getStatus());
+        publish(created(task));
+    }
+
+    /***
+     * every task is validated before the first insert, valid tasks are inserted in one transaction
+     * and sent in jdbc batches (hibernate.jdbc.batch_size), invalid ones are reported and skipped
+     * @param taskDtos bugs and features to create
+     * @return result of each task, in request order
+     */
+    @Override
+    @Transactional
+    public TaskBatchResultDto createTasks(List<TaskDto> taskDtos) {
+        if (taskDtos == null || taskDtos.isEmpty() || taskDtos.size() > Constants.TASK_BATCH_MAX_SIZE) {
+            throw new TaskRequestException("Validation %s failed: %s", "tasks",
+                    "Between 1 and " + Constants.TASK_BATCH_MAX_SIZE + " tasks are required");
+        }
+        List<TaskBatchItemDto> results = new ArrayList<>(taskDtos.size());
+        List<Task> tasks = new ArrayList<>(taskDtos.size());
+        List<TaskBatchItemDto> createdItems = new ArrayList<>(taskDtos.size());
+        // most tasks of an import share a few users
+        Map<Long, Boolean> userExists = new HashMap<>();
+        for (int i = 0; i < taskDtos.size(); i++) {
+            TaskDto taskDto = taskDtos.get(i);
+            TaskBatchItemDto item = new TaskBatchItemDto(i, null, Constants.BATCH_ITEM_CREATED, null);
+            try {
+                if (taskDto == null) {
+                    throw new TaskRequestException("%s%s", "", "Task is required");
+                }
+                Task task = mapToEntity(taskDto, null);
+                if (!userExists.computeIfAbsent(task.getUserId(), usersRepository::existsById)) {
+                    throw new ResourceNotFoundException("Users", "id", "" + task.getUserId());
+                }
+                tasks.add(task);
+                createdItems.add(item);
+            } catch (TaskRequestException | ResourceNotFoundException e) {
+                item.setStatus(Constants.BATCH_ITEM_FAILED);
+                item.setErrorMessage(e.getMessage());
+            }
+            results.add(item);
+        }
+
+        taskRepository.saveAll(tasks);
+        tasks.stream()
+                .map(task -> Map.entry(task.getUserId(), task.getStatus()))
+                .distinct()
+                .forEach(entry -> taskSearchCache.evict(entry.getKey(), entry.getValue()));
+        // ids come from the sequence when the tasks are persisted
+        for (int i = 0; i < tasks.size(); i++) {
+            createdItems.get(i).setId(tasks.get(i).getId());
+        }
+        publish(tasks.stream().map(TaskServiceImpl::created).toList());
+        return new TaskBatchResultDto(taskDtos.size(), tasks.size(), taskDtos.size() - tasks.size(), results);
+    }
+
+    /***
+     * task changes committed from now on, see TaskChangeFeed
+     * @param userId user of the tasks, null for all users
+     * @param status status of the tasks, null for all statuses
+     * @return endless stream of changes
+     */
+    @Override
+    public Flux<TaskChangeDto> streamTaskChanges(Long userId, Integer status) {
+        if (!taskChangeFeed.isEnabled()) {
+            throw new ResourceNotFoundException("Task stream", "task.stream.enabled", "false");
+        }
+        if (userId != null) {
+            checkUserExists(userId);
+        }
+        return taskChangeFeed.subscribe(userId, status);
+    }
+
+    /***
+     * changes go to the stream and to the outbox in the transaction of the change
+     * @param change change of a task
+     */
+    private void publish(TaskChangeDto change) {
+        publish(List.of(change));
+    }
+
+    private void publish(List<TaskChangeDto> changes) {
+        taskChangeFeed.publish(changes);
+        taskOutboxDispatcher.append(changes);
+    }
+
+    private static TaskChangeDto created(Task task) {
+        return new TaskChangeDto(Constants.TASK_CHANGE.CREATED.name(), task.getId(),
+                task.getUserId(), task.getStatus(), null, null, null);
+    }
+
+    /***
+     * existence of users is cached, see UsersRepository.existsById
+     * @param userId user id
+     */
+    private void checkUserExists(Long userId) {
+        if (!usersRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Users", "id", "" + userId);
+        }
+    }
+
+    /***
+     * a bulk request selects tasks by ids or by filter, not both. an empty filter would select every task
+     * @param taskBulkDto ids or filter
+     * @return true for ids, false for filter
+     */
+    private boolean isSelectedByIds(TaskBulkDto taskBulkDto) {
+        Set<ConstraintViolation<TaskBulkDto>> violations = validator.validate(taskBulkDto);
         if (!violations.isEmpty()) {
             List<String> invalidFields = violations.stream()
                     .map(ConstraintViolation::getMessage)
                     .toList();
             throw new TaskRequestException("%s%s", "", String.join(", ", invalidFields));
         }
-        Bug bug = TaskMapper.mapToBug(bugDto, new Bug());
-        if (bugId != null) {
-            bug.setId(bugId);
+        List<Long> ids = taskBulkDto.getIds();
+        SearchDto filter = taskBulkDto.getFilter();
+        if ((ids == null) == (filter == null)) {
+            throw new TaskRequestException("Validation %s failed: %s", "ids", "Either ids or filter is required");
         }
-        bugRepository.save(bug);
-        bugDto.setCategoryId(bug.getId());
-        Task task = TaskMapper.mapToTask(bugDto, new Task());
-        if (taskId != null) {
-            task.setId(taskId);
+        if (ids != null) {
+            if (ids.isEmpty() || ids.size() > Constants.TASK_BULK_MAX_IDS) {
+                throw new TaskRequestException("Validation %s failed: %s", "ids",
+                        "Between 1 and " + Constants.TASK_BULK_MAX_IDS + " ids are required");
+            }
+            return true;
         }
-        taskRepository.save(task);
+        if (filter.getStatus() == null && filter.getUserId() == null
+                && isBlank(filter.getTitle()) && isBlank(filter.getDescription())) {
+            throw new TaskRequestException("Validation %s failed: %s", "filter",
+                    "Status, userId, title or description is required");
+        }
+        return false;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /***
+     * validate the task and map it to a bug or feature entity.
+     * the json was already read as BugDto or FeatureDto from its category
+     * @param taskDto bug or feature information
+     * @param target task of the same category to copy onto, null for a new one
+     * @return bug or feature, not saved yet
+     */
+    private Task mapToEntity(TaskDto taskDto, Task target) {
+        int category = taskDto.getCategory();
+        // check category
+        if (Constants.CATEGORY.BUG.getCode() == category && taskDto instanceof BugDto bugDto) {
+            return mapToBug(bugDto, target instanceof Bug bug ? bug : new Bug());
+        } else if (Constants.CATEGORY.FEATURE.getCode() == category && taskDto instanceof FeatureDto featureDto) {
+            return mapToFeature(featureDto, target instanceof Feature feature ? feature : new Feature());
+        }
+        throw new TaskRequestException("Invalid category%s: [%s]", "", "" + category);
+    }
+
+    private Bug mapToBug(BugDto bugDto, Bug bug) {
+        Set<ConstraintViolation<BugDto>> violations = validator.validate(bugDto);
+        if (!violations.isEmpty()) {
+            List<String> invalidFields = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .toList();
+            throw new TaskRequestException("%s%s", "", String.join(", ", invalidFields));
+        }
+        return TaskMapper.mapToBug(bugDto, bug);
     }
 
-    private void upsertFeature(ObjectNode taskDto, Long featureId, Long taskId) {
-        FeatureDto featureDto = mapper.convertValue(taskDto, FeatureDto.class);
+    private Feature mapToFeature(FeatureDto featureDto, Feature target) {
         Set<ConstraintViolation<FeatureDto>> violations = validator.validate(featureDto);
         if (!violations.isEmpty()) {
             List<String> invalidFields = violations.stream()
@@ -194,49 +567,42 @@ public class TaskServiceImpl implements ITaskService {
         }
         Feature feature;
         try {
-            feature = TaskMapper.mapToFeature(featureDto, new Feature());
+            feature = TaskMapper.mapToFeature(featureDto, target);
             if (feature.getDeadline().isBefore(LocalDate.now())) {
                 throw new TaskRequestException("Validation %s failed: %s", "deadline", "Deadline must be in the future");
             }
         } catch (ParseException e) {
             throw new TaskRequestException("Validation %s failed: %s", "deadline", e.getMessage());
         }
-        if (featureId != null) {
-            feature.setId(featureId);
-        }
-        featureRepository.save(feature);
-        featureDto.setCategoryId(feature.getId());
-        Task task = TaskMapper.mapToTask(featureDto, new Task());
-        if (taskId != null) {
-            task.setId(taskId);
-        }
-        taskRepository.save(task);
+        return feature;
     }
 
-    private Page<ObjectNode> getCategory(Page<Task> pages) {
+    /***
+     * bug and feature details are loaded together with the task row, no extra query is needed
+     * @param pages page of tasks
+     * @return page of bug/feature dto
+     */
+    private Page<TaskDto> mapToDtos(Page<Task> pages) {
         List<Task> tasks = pages.getContent();
         if (!tasks.isEmpty()) {
-             var contents = tasks.stream().map(task -> {
-                if (Constants.CATEGORY.BUG.getCode() == task.getCategory()) {
-                    Bug bug = bugRepository.findById(task.getCategoryId())
-                            .orElse(null);
-                    if (bug != null) {
-                        BugDto bugDto = TaskMapper.mapToBugDto(bug, task, new BugDto());
-                        return mapper.valueToTree(bugDto);
-                    }
-                } else {
-                    Feature feature = featureRepository.findById(task.getCategoryId())
-                            .orElse(null);
-                    if (feature != null) {
-                        FeatureDto featureDto = TaskMapper.mapToFeatureDto(feature, task, new FeatureDto());
-                        return (ObjectNode) mapper.valueToTree(featureDto);
-                    }
-                }
-                return null;
-            }).filter(Objects::nonNull).toList();
-            return new PageImpl<>(contents, pages.getPageable(), pages.getTotalElements());
+            return new PageImpl<>(mapToDtos(tasks), pages.getPageable(), pages.getTotalElements());
         }
         return Page.empty();
     }
-}
 
+    private List<TaskDto> mapToDtos(List<Task> tasks) {
+        return tasks.stream()
+                .map(this::mapToDto)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private TaskListDto toTaskListDto(Page<Task> page, Constants.COUNT_MODE countMode) {
+        return new TaskListDto(mapToDtos(page.getContent()), page.getTotalElements(), page.getTotalPages(),
+                null, countMode.name(), page.hasNext());
+    }
+
+    private TaskDto mapToDto(Task task) {
+        return TaskMapper.mapToDto(task);
+    }
+}
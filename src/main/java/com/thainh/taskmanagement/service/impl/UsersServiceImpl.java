@@ -7,7 +7,9 @@ import com.thainh.taskmanagement.exception.UserExistException;
 import com.thainh.taskmanagement.mapper.UsersMapper;
 import com.thainh.taskmanagement.repository.UsersRepository;
 import com.thainh.taskmanagement.service.IUsersService;
+import com.thainh.taskmanagement.utils.Constants;
 import lombok.AllArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -24,7 +26,13 @@ public class UsersServiceImpl implements IUsersService {
         return users.stream().map(user -> UsersMapper.mapToUsersDto(user, new UsersDto())).toList();
     }
 
+    /***
+     * the new id is only known after insert, so all cached ids are evicted,
+     * including an "unknown" entry for this id
+     * @param usersDto user information
+     */
     @Override
+    @CacheEvict(value = Constants.USER_EXISTS_CACHE, allEntries = true)
     public void createUser(UsersDto usersDto) {
         Users users = UsersMapper.mapToUsers(usersDto, new Users()); // Users
         Optional<Users> existingUser = usersRepository.findByUsername(users.getUsername()); // Optional<Users>
@@ -49,6 +57,7 @@ public class UsersServiceImpl implements IUsersService {
     }
 
     @Override
+    @CacheEvict(value = Constants.USER_EXISTS_CACHE, key = "#id")
     public void deleteUser(Long id) {
         Users existingUser = usersRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", "" + id));
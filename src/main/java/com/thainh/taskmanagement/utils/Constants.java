@@ -7,6 +7,25 @@ public class Constants {
     public static final String DELETE_SUCCESS = "Deleted successfully";
     public static final String STATUS_200 = "200";
     public static final String STATUS_201 = "201";
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final int EXPORT_FETCH_SIZE = 500;
+    public static final String USER_EXISTS_CACHE = "userExists";
+    public static final String TASK_SEARCH_CACHE = "taskSearch";
+    // hibernate second-level cache regions, configured in ehcache.xml
+    public static final String TASK_CACHE_REGION = "task";
+    public static final String USERS_CACHE_REGION = "users";
+    // ids reserved per sequence call, same as the increment of the sequences
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final int TASK_BATCH_MAX_SIZE = 1000;
+    public static final int TASK_BULK_MAX_IDS = 10000;
+    public static final int SEARCH_MAX_PAGE_SIZE = 1000;
+    public static final String BATCH_ITEM_CREATED = "CREATED";
+    public static final String BATCH_ITEM_FAILED = "FAILED";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int IDEMPOTENCY_KEY_MAX_LENGTH = 255;
+    // postgres channel of TaskChangeFeed
+    public static final String TASK_CHANGE_CHANNEL = "task_change";
 
     public enum SEVERITY {
         LOW, MEDIUM, HIGH, CRITICAL
@@ -16,6 +35,14 @@ public class Constants {
         OPEN, IN_PROGRESS, DONE
     }
 
+    public enum COUNT_MODE {
+        EXACT, NONE, ESTIMATED
+    }
+
+    public enum TASK_CHANGE {
+        CREATED, UPDATED, DELETED, BULK_DELETED, BULK_STATUS_CHANGED
+    }
+
     public enum CATEGORY {
         BUG(0),
         FEATURE(1);
@@ -0,0 +1,119 @@
+package com.thainh.taskmanagement.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thainh.taskmanagement.exception.IdempotencyKeyException;
+import com.thainh.taskmanagement.exception.TaskRequestException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/***
+ * requests of @Idempotent methods with an Idempotency-Key header run once, a retry gets the first
+ * response again (Idempotent-Replayed: true) without calling the service. while the first request runs
+ * retries get 409, the same key with another request 422. failed requests do not keep the key,
+ * a request that never finished holds it for idempotency.stale-after
+ */
+@Aspect
+@Component
+public class IdempotencyAspect {
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyAspect(IdempotencyStore idempotencyStore, ObjectMapper objectMapper) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Around("@annotation(com.thainh.taskmanagement.utils.Idempotent)")
+    public Object aroundIdempotent(ProceedingJoinPoint joinPoint) throws Throwable {
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        String key = request.getHeader(Constants.IDEMPOTENCY_KEY_HEADER);
+        if (key == null) {
+            return joinPoint.proceed();
+        }
+        if (key.isBlank() || key.length() > Constants.IDEMPOTENCY_KEY_MAX_LENGTH) {
+            throw new TaskRequestException("Validation %s failed: %s", Constants.IDEMPOTENCY_KEY_HEADER,
+                    "must have 1 to " + Constants.IDEMPOTENCY_KEY_MAX_LENGTH + " characters");
+        }
+        String apiPath = request.getMethod() + " " + request.getRequestURI();
+        String requestHash = hash(joinPoint.getArgs());
+
+        IdempotencyStore.Entry entry = idempotencyStore.find(key);
+        // a request that never finished keeps its key until stale-after, then the same request takes it over
+        if (entry == null || (idempotencyStore.isStale(entry) && entry.matches(apiPath, requestHash))) {
+            LocalDateTime claimedAt = idempotencyStore.claim(key, apiPath, requestHash);
+            if (claimedAt != null) {
+                return run(joinPoint, key, claimedAt, apiPath, requestHash);
+            }
+            entry = idempotencyStore.find(key);
+        }
+        if (entry != null && !entry.matches(apiPath, requestHash)) {
+            throw new IdempotencyKeyException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key [%s] was used for another request", key);
+        }
+        if (entry == null || entry.isRunning()) {
+            throw new IdempotencyKeyException(HttpStatus.CONFLICT,
+                    "Request with Idempotency-Key [%s] is still running", key);
+        }
+        return ResponseEntity.status(entry.statusCode())
+                .header(Constants.IDEMPOTENT_REPLAYED_HEADER, "true")
+                .body(objectMapper.readValue(entry.responseBody(), bodyType(joinPoint)));
+    }
+
+    private Object run(ProceedingJoinPoint joinPoint, String key, LocalDateTime claimedAt,
+                       String apiPath, String requestHash) throws Throwable {
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            idempotencyStore.release(key, claimedAt);
+            throw e;
+        }
+        if (result instanceof ResponseEntity<?> entity && entity.getStatusCode().is2xxSuccessful()) {
+            idempotencyStore.complete(key, claimedAt, apiPath, requestHash, entity.getStatusCode().value(),
+                    objectMapper.writeValueAsString(entity.getBody()));
+        } else {
+            idempotencyStore.release(key, claimedAt);
+        }
+        return result;
+    }
+
+    /***
+     * sha-256 of the request arguments as json
+     */
+    private String hash(Object[] args) throws JsonProcessingException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(args)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /***
+     * T of the ResponseEntity<T> returned by the method
+     */
+    private JavaType bodyType(ProceedingJoinPoint joinPoint) {
+        Type returnType = ((MethodSignature) joinPoint.getSignature()).getMethod().getGenericReturnType();
+        Type bodyType = returnType instanceof ParameterizedType parameterized
+                ? parameterized.getActualTypeArguments()[0] : Object.class;
+        return objectMapper.getTypeFactory().constructType(bodyType);
+    }
+}
@@ -0,0 +1,144 @@
+package com.thainh.taskmanagement.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thainh.taskmanagement.entity.IdempotencyKey;
+import com.thainh.taskmanagement.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/***
+ * idempotency keys in a local LRU in front of the idempotency_key table.
+ * retries reaching this instance are answered from memory, the table is shared by all instances,
+ * survives restarts and decides which request runs when the key is new
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Duration retention;
+    private final Duration staleAfter;
+    private final Cache<String, Entry> cache;
+
+    /***
+     * @param statusCode null while the first request is running
+     * @param responseBody json of the response body
+     * @param claimedAt when the running request took the key
+     */
+    public record Entry(String apiPath, String requestHash, Integer statusCode, String responseBody,
+                        LocalDateTime claimedAt) {
+
+        public boolean isRunning() {
+            return statusCode == null;
+        }
+
+        public boolean matches(String apiPath, String requestHash) {
+            return this.apiPath.equals(apiPath) && this.requestHash.equals(requestHash);
+        }
+    }
+
+    public IdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository,
+                            @Value("${idempotency.retention:24h}") Duration retention,
+                            @Value("${idempotency.stale-after:60s}") Duration staleAfter,
+                            @Value("${idempotency.cache.maximum-size:10000}") long maximumSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.retention = retention;
+        this.staleAfter = staleAfter;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    /***
+     * @param key Idempotency-Key header
+     * @return response or running request of the key, null if the key is new or expired
+     */
+    public Entry find(String key) {
+        Entry entry = cache.getIfPresent(key);
+        // a request running longer than stale-after can have been taken over, the table knows
+        if (entry != null && !isStale(entry)) {
+            return entry;
+        }
+        IdempotencyKey row = idempotencyKeyRepository.findActive(key, now().minus(retention)).orElse(null);
+        if (row == null) {
+            cache.invalidate(key);
+            return null;
+        }
+        entry = new Entry(row.getApiPath(), row.getRequestHash(), row.getStatusCode(), row.getResponseBody(),
+                row.getCreatedAt());
+        // a request running on another instance is looked up again, its response is not known yet
+        if (entry.isRunning()) {
+            cache.invalidate(key);
+        } else {
+            cache.put(key, entry);
+        }
+        return entry;
+    }
+
+    /***
+     * @return true if the request of the entry is running for longer than stale-after, so it never finished
+     * (crashed instance, connection lost before the release) and a retry can take the key over
+     */
+    public boolean isStale(Entry entry) {
+        return entry.isRunning() && !entry.claimedAt().isAfter(now().minus(staleAfter));
+    }
+
+    /***
+     * take a new or stale key for the request about to run
+     * @return token of the claim for complete and release, null if another request took the key first
+     */
+    public LocalDateTime claim(String key, String apiPath, String requestHash) {
+        LocalDateTime now = now();
+        if (idempotencyKeyRepository.claim(key, apiPath, requestHash, now,
+                now.minus(retention), now.minus(staleAfter)) == 1) {
+            cache.put(key, new Entry(apiPath, requestHash, null, null, now));
+            return now;
+        }
+        cache.invalidate(key);
+        return null;
+    }
+
+    /***
+     * store the response of the request holding the claim. a claim taken over by a retry after
+     * stale-after is not overwritten, the retry stores its own response
+     */
+    public void complete(String key, LocalDateTime claimedAt, String apiPath, String requestHash,
+                         int statusCode, String responseBody) {
+        if (idempotencyKeyRepository.complete(key, claimedAt, statusCode, responseBody) == 1) {
+            cache.put(key, new Entry(apiPath, requestHash, statusCode, responseBody, claimedAt));
+        } else {
+            cache.invalidate(key);
+            logger.warn("Idempotency-Key [{}] was taken over by a retry before its request completed", key);
+        }
+    }
+
+    /***
+     * the request holding the claim failed, the key can be used again
+     */
+    public void release(String key, LocalDateTime claimedAt) {
+        cache.invalidate(key);
+        idempotencyKeyRepository.release(key, claimedAt);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:1h}")
+    public void deleteExpired() {
+        idempotencyKeyRepository.deleteExpired(now().minus(retention));
+    }
+
+    /***
+     * in microseconds as stored in created_at, so the token of a claim compares equal to its row
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,15 @@
+package com.thainh.taskmanagement.utils;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/***
+ * controller method whose first response is replayed to requests with the same Idempotency-Key header,
+ * see IdempotencyAspect. the method must return a ResponseEntity
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+}
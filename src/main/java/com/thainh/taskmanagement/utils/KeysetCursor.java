@@ -0,0 +1,42 @@
+package com.thainh.taskmanagement.utils;
+
+import com.thainh.taskmanagement.exception.TaskRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/***
+ * position of the last task of a keyset page, sent to clients as an opaque string.
+ * tasks are ordered by (created_at, id) descending, the next page starts strictly after this position
+ * @param createdAt created time of the last task
+ * @param id id of the last task
+ */
+public record KeysetCursor(LocalDateTime createdAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /***
+     * @param cursor cursor returned by the previous page
+     * @return decoded cursor, null for the first page
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, index)),
+                    Long.parseLong(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new TaskRequestException("Invalid %s: [%s]", "cursor", cursor);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.thainh.taskmanagement.utils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.aspectj.lang.JoinPoint;
@@ -9,40 +10,85 @@ import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Aspect
 @Component
 public class LoggingAspect {
     private static Logger logger = LoggerFactory.getLogger(LoggingAspect.class.getName());
+    private static final String TRUNCATED = "...(truncated)";
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    private final double sampleRate;
+    private final int maxBodySize;
+    // single writer thread, calls are dropped instead of blocking requests when the queue is full
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public LoggingAspect(@Value("${logging.api.sample-rate:1.0}") double sampleRate,
+                         @Value("${logging.api.max-body-size:2048}") int maxBodySize,
+                         @Value("${logging.api.async:true}") boolean async,
+                         @Value("${logging.api.queue-capacity:1000}") int queueCapacity) {
+        this.sampleRate = sampleRate;
+        this.maxBodySize = maxBodySize;
+        this.executor = async ? new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "api-logging");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> dropped.incrementAndGet()) : null;
+    }
+
     @Pointcut("execution(* com.thainh.taskmanagement.controller..*(..))")  // Use ".." to match sub-packages
     public void controllerMethods() {}
 
     @Around("controllerMethods()")
     public Object aroundAdvice(ProceedingJoinPoint joinPoint) throws Throwable {
+        Logger classLogger = LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
+        // nothing is serialized when the call is not logged
+        if (!classLogger.isInfoEnabled() || !sampled()) {
+            return joinPoint.proceed();
+        }
+
         HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
         HttpServletResponse response = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getResponse();
 
-        Logger classLogger = LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
-
         // Get HTTP request details
         String method = request.getMethod();
         String url = request.getRequestURL().toString();
-        String requestBody = objectMapper.writeValueAsString(joinPoint.getArgs());
+        Object[] args = joinPoint.getArgs();
 
-        classLogger.info("API CALL - {} {} - Body: {}", method, url, requestBody);
+        // serialized before the method runs, it can change its arguments (e.g. the version of an update)
+        String body = serialize(args);
+        log(() -> classLogger.info("API CALL - {} {} - Body: {}", method, url, body));
 
         Object result = joinPoint.proceed();  // Execute API method
 
-        // Log response
-        classLogger.info("API RESPONSE - {} {} - Status: {} - Response: {}", method, url,
-                response.getStatus(), objectMapper.writeValueAsString(result));
+        // Log response, a streamed or reactive body is written after this method returns
+        int status = response.getStatus();
+        log(() -> classLogger.info("API RESPONSE - {} {} - Status: {} - Response: {}", method, url,
+                status, result instanceof Publisher<?>
+                        || result instanceof ResponseEntity<?> entity
+                        && entity.getBody() instanceof StreamingResponseBody
+                        ? "[stream]" : serialize(result)));
 
         return result;
     }
@@ -52,4 +98,85 @@ public class LoggingAspect {
         logger = LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
         logger.error("Exception in method: {} - Message: {}", joinPoint.getSignature(), ex.getMessage(), ex);
     }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        if (dropped.get() > 0) {
+            logger.warn("API logging dropped {} entries, queue was full", dropped.get());
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private void log(Runnable entry) {
+        if (executor != null) {
+            executor.execute(entry);
+        } else {
+            entry.run();
+        }
+    }
+
+    /***
+     * json of the value, cut at maxBodySize characters.
+     * serialization stops once the limit is reached instead of writing the whole body
+     * @param value args or result
+     * @return json, truncated if too long
+     */
+    private String serialize(Object value) {
+        LimitedWriter writer = new LimitedWriter(maxBodySize);
+        try {
+            objectMapper.writeValue(writer, value);
+        } catch (IOException e) {
+            if (!writer.isFull()) {
+                return "[not serializable: " + e.getMessage() + "]";
+            }
+        } catch (RuntimeException e) {
+            // never lose the entry or the logging thread to a value that cannot be serialized
+            return "[not serializable: " + e + "]";
+        }
+        return writer.isFull() ? writer + TRUNCATED : writer.toString();
+    }
+
+    private static class LimitedWriter extends Writer {
+        private final StringBuilder builder = new StringBuilder();
+        private final int limit;
+        private boolean full;
+
+        LimitedWriter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            int remaining = limit - builder.length();
+            if (length > remaining) {
+                builder.append(chars, offset, remaining);
+                full = true;
+                throw new IOException("log body limit reached");
+            }
+            builder.append(chars, offset, length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        boolean isFull() {
+            return full;
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.thainh.taskmanagement.utils;
+
+import com.thainh.taskmanagement.dto.TaskListDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/***
+ * metrics of service operations, tagged by service and method:
+ * service.calls (timer, percentiles configured in application.properties),
+ * service.repository.calls (repository calls made by one operation),
+ * service.results (number of items returned)
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+
+    // repository calls of the service operation running on this thread, null outside of one
+    private static final ThreadLocal<int[]> REPOSITORY_CALLS = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Pointcut("execution(public * com.thainh.taskmanagement.service.impl..*(..))")
+    public void serviceMethods() {}
+
+    @Pointcut("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public void repositoryMethods() {}
+
+    @Around("serviceMethods()")
+    public Object aroundService(ProceedingJoinPoint joinPoint) throws Throwable {
+        // operations called by another operation are timed, their repository calls count for the outer one
+        boolean outermost = REPOSITORY_CALLS.get() == null;
+        if (outermost) {
+            REPOSITORY_CALLS.set(new int[1]);
+        }
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        String exception = "none";
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Object result = joinPoint.proceed();
+            recordResultSize(service, method, result);
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("service.calls")
+                    .description("Latency of service operations")
+                    .tags("service", service, "method", method, "exception", exception)
+                    .register(meterRegistry));
+            if (outermost) {
+                int repositoryCalls = REPOSITORY_CALLS.get()[0];
+                REPOSITORY_CALLS.remove();
+                DistributionSummary.builder("service.repository.calls")
+                        .description("Repository calls made by one service operation")
+                        .tags("service", service, "method", method)
+                        .register(meterRegistry)
+                        .record(repositoryCalls);
+            }
+        }
+    }
+
+    @Around("repositoryMethods()")
+    public Object aroundRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        int[] calls = REPOSITORY_CALLS.get();
+        if (calls != null) {
+            calls[0]++;
+        }
+        return joinPoint.proceed();
+    }
+
+    private void recordResultSize(String service, String method, Object result) {
+        int size;
+        if (result instanceof Slice<?> slice) {
+            size = slice.getNumberOfElements();
+        } else if (result instanceof Collection<?> collection) {
+            size = collection.size();
+        } else if (result instanceof TaskListDto taskList) {
+            size = taskList.getResults().size();
+        } else {
+            return;
+        }
+        DistributionSummary.builder("service.results")
+                .description("Items returned by one service operation")
+                .tags("service", service, "method", method)
+                .register(meterRegistry)
+                .record(size);
+    }
+}
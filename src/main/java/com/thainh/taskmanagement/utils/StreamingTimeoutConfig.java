@@ -0,0 +1,45 @@
+package com.thainh.taskmanagement.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/***
+ * timeout of streamed response bodies (task export). spring mvc runs a StreamingResponseBody as a Callable
+ * without a timeout of its own, so it would get the async timeout of the container (30s on tomcat) and cut
+ * a large export or a slow client off mid-file. Callables only come from streamed bodies here, reactive
+ * types and server-sent events are not Callables and keep their own timeouts
+ */
+@Configuration
+public class StreamingTimeoutConfig implements WebMvcConfigurer {
+
+    private final long timeoutMillis;
+
+    /***
+     * @param timeout longest export, 0 for none. a client that stops reading still fails the write
+     *                after the socket timeout of the container
+     */
+    public StreamingTimeoutConfig(@Value("${task.export.timeout:1h}") Duration timeout) {
+        this.timeoutMillis = timeout.isZero() ? -1 : timeout.toMillis();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            // called before the async request is started, which applies the timeout
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                if (request instanceof AsyncWebRequest asyncWebRequest) {
+                    asyncWebRequest.setTimeout(timeoutMillis);
+                }
+            }
+        });
+    }
+}
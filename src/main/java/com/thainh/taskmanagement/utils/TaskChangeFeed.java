@@ -0,0 +1,184 @@
+package com.thainh.taskmanagement.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thainh.taskmanagement.dto.TaskChangeDto;
+import com.thainh.taskmanagement.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+/***
+ * committed task changes, published with postgres NOTIFY in the transaction of the change and read back
+ * with LISTEN on one connection per instance, outside of the pool. every instance gets every change and
+ * fans it out to its own subscribers. a slow subscriber only loses its oldest changes, it never holds up
+ * the others. changes sent while the connection is lost are not replayed, clients read again on reconnect
+ */
+@Component
+public class TaskChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskChangeFeed.class);
+    // longest wait for a notification, also how long stop takes to end the listener
+    private static final int POLL_MILLIS = 1000;
+
+    private final TaskRepository taskRepository;
+    private final ObjectMapper objectMapper;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final int bufferSize;
+    private final Duration reconnectDelay;
+    // drops a change for a subscriber without demand, each subscriber has its own buffer in front
+    private final Sinks.Many<TaskChangeDto> sink = Sinks.many().multicast().directBestEffort();
+    private volatile boolean running;
+    private volatile boolean listening;
+
+    public TaskChangeFeed(TaskRepository taskRepository,
+                          ObjectMapper objectMapper,
+                          DataSourceProperties dataSourceProperties,
+                          @Value("${task.stream.enabled:false}") boolean enabled,
+                          @Value("${task.stream.buffer-size:256}") int bufferSize,
+                          @Value("${task.stream.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.taskRepository = taskRepository;
+        this.objectMapper = objectMapper;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.bufferSize = bufferSize;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        Thread listener = new Thread(this::listen, "task-change-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        sink.tryEmitComplete();
+    }
+
+    /***
+     * @return false when task.stream.enabled is off: writes do not notify, there is nothing to subscribe to
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /***
+     * @return true while the listener connection is open, changes committed meanwhile are sent to subscribers
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    /***
+     * publish changes in the current transaction with one statement, listeners get them after commit
+     * @param changes changes of tasks
+     */
+    public void publish(List<TaskChangeDto> changes) {
+        if (!enabled || changes.isEmpty()) {
+            return;
+        }
+        String[] payloads = new String[changes.size()];
+        try {
+            for (int i = 0; i < payloads.length; i++) {
+                payloads[i] = objectMapper.writeValueAsString(changes.get(i));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        taskRepository.notifyChannel(Constants.TASK_CHANGE_CHANNEL, payloads);
+    }
+
+    /***
+     * changes committed from now on that concern the user and status
+     * @param userId user of the tasks, null for all users
+     * @param status status of the tasks, null for all statuses
+     * @return endless stream of changes, ends when the application stops
+     */
+    public Flux<TaskChangeDto> subscribe(Long userId, Integer status) {
+        return sink.asFlux()
+                .filter(change -> matches(change, userId, status))
+                .onBackpressureBuffer(bufferSize, change -> logger.debug("Task change dropped for a slow subscriber"),
+                        BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    /***
+     * an update concerns the user and status before and after it. null user or status of a bulk change
+     * means any, the change is sent to every subscriber
+     */
+    private static boolean matches(TaskChangeDto change, Long userId, Integer status) {
+        return (userId == null || change.getUserId() == null
+                || userId.equals(change.getUserId()) || userId.equals(change.getPreviousUserId()))
+                && (status == null || change.getStatus() == null
+                || status.equals(change.getStatus()) || status.equals(change.getPreviousStatus()));
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + Constants.TASK_CHANGE_CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                listening = true;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        emit(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                listening = false;
+                if (running) {
+                    logger.warn("Listening to task changes failed, reconnecting in {}", reconnectDelay, e);
+                    sleep(reconnectDelay);
+                }
+            }
+        }
+        listening = false;
+    }
+
+    private void emit(String payload) {
+        try {
+            // only this thread emits, no concurrent emission to guard against
+            sink.tryEmitNext(objectMapper.readValue(payload, TaskChangeDto.class));
+        } catch (JsonProcessingException e) {
+            logger.warn("Invalid task change [{}]", payload, e);
+        }
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
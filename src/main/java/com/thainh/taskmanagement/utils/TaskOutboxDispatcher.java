@@ -0,0 +1,172 @@
+package com.thainh.taskmanagement.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thainh.taskmanagement.dto.TaskChangeDto;
+import com.thainh.taskmanagement.entity.TaskOutbox;
+import com.thainh.taskmanagement.repository.TaskOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/***
+ * transactional outbox of task changes: writes add rows to task_outbox in their own transaction,
+ * the dispatcher hands them to the TaskOutboxHandler beans in batches and deletes them.
+ * batches are locked with FOR UPDATE SKIP LOCKED, so the dispatchers of several instances share the rows
+ * without handing one row twice at the same time. nothing is written while there is no handler
+ */
+@Component
+public class TaskOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskOutboxDispatcher.class);
+    private static final int LAST_ERROR_MAX_LENGTH = 1000;
+
+    private final TaskOutboxRepository taskOutboxRepository;
+    private final List<TaskOutboxHandler> handlers;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Counter dispatched;
+    private final Counter failed;
+
+    public TaskOutboxDispatcher(TaskOutboxRepository taskOutboxRepository,
+                                ObjectProvider<TaskOutboxHandler> handlers,
+                                ObjectMapper objectMapper,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${task.outbox.enabled:true}") boolean enabled,
+                                @Value("${task.outbox.batch-size:100}") int batchSize,
+                                @Value("${task.outbox.max-attempts:10}") int maxAttempts,
+                                @Value("${task.outbox.backoff:1s}") Duration backoff,
+                                @Value("${task.outbox.max-backoff:5m}") Duration maxBackoff) {
+        this.taskOutboxRepository = taskOutboxRepository;
+        this.handlers = handlers.orderedStream().toList();
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.dispatched = Counter.builder("task.outbox.events")
+                .description("Task changes handed to the outbox handlers")
+                .tag("result", "dispatched")
+                .register(meterRegistry);
+        this.failed = Counter.builder("task.outbox.events")
+                .description("Task changes handed to the outbox handlers")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    /***
+     * @return true when changes are written and dispatched
+     */
+    public boolean isActive() {
+        return enabled && !handlers.isEmpty();
+    }
+
+    /***
+     * add changes to the outbox in the transaction of the change, sent with the inserts of the tasks
+     * in jdbc batches. the handlers only run later, the write does not wait for them
+     * @param changes changes of tasks
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<TaskChangeDto> changes) {
+        if (!isActive() || changes.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<TaskOutbox> rows = new ArrayList<>(changes.size());
+        try {
+            for (TaskChangeDto change : changes) {
+                rows.add(new TaskOutbox(null, change.getType(), change.getId(),
+                        objectMapper.writeValueAsString(change), now, now, 0, null));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        taskOutboxRepository.saveAll(rows);
+    }
+
+    /***
+     * dispatch the due changes. a batch handed over completely means more may be due,
+     * they are dispatched before waiting for the next poll
+     */
+    @Scheduled(fixedDelayString = "${task.outbox.poll-interval:1s}")
+    public void dispatch() {
+        if (!isActive()) {
+            return;
+        }
+        while (dispatchBatch() == batchSize) {
+            // next batch
+        }
+    }
+
+    /***
+     * lock one batch, hand every change to every handler, delete the changes handed over and
+     * move the failed ones to after their backoff. all in one transaction, the locks keep other
+     * dispatchers off the batch until it is committed
+     * @return number of changes handed over
+     */
+    public int dispatchBatch() {
+        Integer handedOver = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<TaskOutbox> rows = taskOutboxRepository.lockDue(now, maxAttempts, batchSize);
+            List<Long> done = new ArrayList<>(rows.size());
+            for (TaskOutbox row : rows) {
+                try {
+                    TaskChangeDto change = objectMapper.readValue(row.getPayload(), TaskChangeDto.class);
+                    for (TaskOutboxHandler handler : handlers) {
+                        handler.handle(change);
+                    }
+                    done.add(row.getId());
+                } catch (Exception e) {
+                    // the locked row is updated with the commit
+                    row.setAttempts(row.getAttempts() + 1);
+                    row.setAvailableAt(now.plus(backoff(row.getAttempts())));
+                    row.setLastError(lastError(e));
+                    logger.warn("Task change {} failed, attempt {} of {}",
+                            row.getId(), row.getAttempts(), maxAttempts, e);
+                }
+            }
+            if (!done.isEmpty()) {
+                taskOutboxRepository.deleteByIds(done);
+            }
+            dispatched.increment(done.size());
+            failed.increment(rows.size() - done.size());
+            return done.size();
+        });
+        return handedOver == null ? 0 : handedOver;
+    }
+
+    /***
+     * backoff doubled after each failure, up to maxBackoff
+     * @param attempts failed attempts so far, from 1
+     */
+    private Duration backoff(int attempts) {
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String lastError(Exception e) {
+        String error = e.toString();
+        return error.length() > LAST_ERROR_MAX_LENGTH ? error.substring(0, LAST_ERROR_MAX_LENGTH) : error;
+    }
+}
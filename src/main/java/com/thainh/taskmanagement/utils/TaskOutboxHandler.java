@@ -0,0 +1,18 @@
+package com.thainh.taskmanagement.utils;
+
+import com.thainh.taskmanagement.dto.TaskChangeDto;
+
+/***
+ * side effect of task changes (webhook, message broker, index...), declared as a bean.
+ * run by TaskOutboxDispatcher after the change is committed, never in the request that made it.
+ * a change is handed over at least once: again after any handler failed on it,
+ * or when the instance stops before the batch is committed
+ */
+public interface TaskOutboxHandler {
+
+    /***
+     * @param change committed change of a task
+     * @throws Exception to retry the change after the backoff
+     */
+    void handle(TaskChangeDto change) throws Exception;
+}
@@ -0,0 +1,137 @@
+package com.thainh.taskmanagement.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thainh.taskmanagement.dto.SearchDto;
+import com.thainh.taskmanagement.dto.TaskListDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/***
+ * results of filter and full-text search, bounded by size and time to live.
+ * a written task evicts only the searches it can appear in: same user or no user filter,
+ * same status or no status filter. the cache is registered in the spring CacheManager
+ * so its hit/miss counts are in /actuator/metrics/cache.gets
+ */
+@Component
+public class TaskSearchCache implements CacheManagerCustomizer<CaffeineCacheManager> {
+
+    private final boolean enabled;
+    private final Cache<Object, Object> cache;
+    // incremented by every eviction, a result searched across an eviction may be stale and is dropped
+    private final AtomicLong evictions = new AtomicLong();
+
+    public TaskSearchCache(@Value("${search.cache.enabled:true}") boolean enabled,
+                           @Value("${search.cache.maximum-size:1000}") long maximumSize,
+                           @Value("${search.cache.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void customize(CaffeineCacheManager cacheManager) {
+        cacheManager.registerCustomCache(Constants.TASK_SEARCH_CACHE, cache);
+    }
+
+    /***
+     * @param searchDto filter and page, keyset searches are not cached
+     * @param search runs the search when the result is not cached
+     * @return cached or new result
+     */
+    public TaskListDto get(SearchDto searchDto, Supplier<TaskListDto> search) {
+        if (!enabled) {
+            return search.get();
+        }
+        // not cache.get(key, loader): the loader runs inside a synchronized map bin, a virtual thread
+        // running the query there stays pinned to its carrier. concurrent misses may search twice
+        Key key = Key.of(searchDto);
+        TaskListDto result = (TaskListDto) cache.getIfPresent(key);
+        if (result == null) {
+            long evictionsBefore = evictions.get();
+            result = search.get();
+            cache.put(key, result);
+            if (evictions.get() != evictionsBefore) {
+                cache.invalidate(key);
+            }
+        }
+        return result;
+    }
+
+    /***
+     * evict searches a task of this user and status can appear in. inside a transaction the searches
+     * are evicted after commit, so a search running before the commit cannot cache the old rows again
+     * @param userId user of the task
+     * @param status status of the task
+     */
+    public void evict(Long userId, int status) {
+        evict(key -> key.matches(userId, status));
+    }
+
+    /***
+     * evict every search, for writes to tasks of any user or status (bulk delete and status change)
+     */
+    public void evictAll() {
+        evict(key -> true);
+    }
+
+    private void evict(Predicate<Key> matches) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(matches);
+                }
+            });
+        } else {
+            evictNow(matches);
+        }
+    }
+
+    private void evictNow(Predicate<Key> matches) {
+        evictions.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> matches.test((Key) key));
+    }
+
+    /***
+     * normalized search: title and description are matched case-insensitively, so they are lower-cased
+     */
+    private record Key(Integer status, Long userId, String title, String description, boolean fullText,
+                       Constants.COUNT_MODE countMode, int pageNum, int pageSize) {
+
+        static Key of(SearchDto searchDto) {
+            return new Key(searchDto.getStatus(),
+                    searchDto.getUserId(),
+                    lowerCase(searchDto.getTitle()),
+                    lowerCase(searchDto.getDescription()),
+                    searchDto.isFullText(),
+                    searchDto.getCountMode(),
+                    searchDto.getPageNum(),
+                    searchDto.getPageSize());
+        }
+
+        boolean matches(Long taskUserId, int taskStatus) {
+            return (userId == null || userId.equals(taskUserId)) && (status == null || status == taskStatus);
+        }
+
+        private static String lowerCase(String value) {
+            return value == null ? null : value.toLowerCase(Locale.ROOT);
+        }
+    }
+}
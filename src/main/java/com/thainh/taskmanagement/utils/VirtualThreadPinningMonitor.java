@@ -0,0 +1,95 @@
+package com.thainh.taskmanagement.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/***
+ * reports virtual threads pinned to their carrier thread, from the jdk.VirtualThreadPinned jfr event.
+ * a pinned thread blocked on jdbc keeps its carrier, enough of them stall every request.
+ * active only when virtual threads are enabled (virtual profile)
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int BLOCKING_FRAMES = 10;
+    private static final String APPLICATION_PACKAGE = "com.thainh.taskmanagement.";
+
+    private final Duration threshold;
+    private final Counter pinned;
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(@Value("${virtual-threads.pinned-threshold:20ms}") Duration threshold,
+                                       MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        recordingStream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        if (logger.isWarnEnabled()) {
+            logger.warn("Virtual thread {} pinned for {} ms at:\n\t{}",
+                    event.getThread() == null ? "?" : event.getThread().getJavaThreadId(),
+                    event.getDuration().toMillis(), frames(event));
+        }
+    }
+
+    /***
+     * frames of the blocking call, from the first caller outside of the jdk (the frames above only show
+     * how the thread parked), then the frames of this application that led to it
+     */
+    private static String frames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "[no stack trace]";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames().stream()
+                .dropWhile(frame -> isJdk(type(frame)))
+                .toList();
+        Stream<RecordedFrame> logged = Stream.concat(frames.stream().limit(BLOCKING_FRAMES),
+                frames.stream().skip(BLOCKING_FRAMES).filter(frame -> type(frame).startsWith(APPLICATION_PACKAGE)));
+        return logged.map(frame -> type(frame) + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n\t"))
+                + (event.getStackTrace().isTruncated() ? "\n\t...(truncated)" : "");
+    }
+
+    private static String type(RecordedFrame frame) {
+        return frame.getMethod().getType().getName();
+    }
+
+    private static boolean isJdk(String type) {
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+}
@@ -0,0 +1,7 @@
+-- users ids come from a sequence handed out in blocks of 50, like task ids (V9).
+-- with the pooled-lo optimizer the value returned by nextval is the first id of the block
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE users_id_seq INCREMENT BY 50 MINVALUE 1 NO CYCLE OWNED BY users.id;
+
+SELECT setval('users_id_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
@@ -0,0 +1,10 @@
+-- searchTasks filters on user_id and/or status and returns the newest tasks first.
+-- each index gives the rows of one filter combination already in ORDER BY created_at DESC, id DESC,
+-- so a page reads only its own rows instead of sorting every matching task.
+-- no filter and status filter with keyset cursor are served by idx_task_created_at_id (V7)
+
+-- user_id and status, or user_id alone (prefix)
+CREATE INDEX idx_task_user_id_status_created_at ON task (user_id, status, created_at DESC, id DESC);
+
+-- status alone
+CREATE INDEX idx_task_status_created_at ON task (status, created_at DESC, id DESC);
@@ -0,0 +1,12 @@
+-- responses of create requests by Idempotency-Key header, a retried request gets the first response again.
+-- status_code is null while the first request is running
+CREATE TABLE idempotency_key (
+    idempotency_key varchar(255) NOT NULL PRIMARY KEY,
+    api_path        varchar(255) NOT NULL,
+    request_hash    varchar(64)  NOT NULL,
+    status_code     int4         NULL,
+    response_body   text         NULL,
+    created_at      timestamp(6) NOT NULL
+);
+
+CREATE INDEX idx_idempotency_key_created_at ON idempotency_key (created_at);
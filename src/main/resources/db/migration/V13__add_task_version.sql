@@ -0,0 +1,4 @@
+-- optimistic locking: incremented by every update of a task, sent as the ETag of the task.
+-- bug and feature details are in the task row since V6, one version covers both.
+-- a constant default does not rewrite the table
+ALTER TABLE task ADD COLUMN version int8 NOT NULL DEFAULT 0;
@@ -0,0 +1,18 @@
+-- task changes written in the transaction of the change, drained in batches by TaskOutboxDispatcher.
+-- a row is deleted once every handler took it, a failed row waits until available_at to be retried
+CREATE TABLE task_outbox (
+    id           int8          NOT NULL PRIMARY KEY,
+    event_type   varchar(32)   NOT NULL,
+    task_id      int8          NULL,
+    payload      text          NOT NULL,
+    created_at   timestamp(6)  NOT NULL,
+    available_at timestamp(6)  NOT NULL,
+    attempts     int4          NOT NULL DEFAULT 0,
+    last_error   varchar(1000) NULL
+);
+
+-- ids in blocks of 50 like task ids (V9), rows of one write are inserted in jdbc batches with the tasks
+CREATE SEQUENCE task_outbox_id_seq INCREMENT BY 50 MINVALUE 1 NO CYCLE OWNED BY task_outbox.id;
+
+-- rows due for dispatch, oldest first
+CREATE INDEX idx_task_outbox_available_at ON task_outbox (available_at, id);
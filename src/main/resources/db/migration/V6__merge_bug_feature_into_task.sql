@@ -0,0 +1,30 @@
+-- bug and feature details move into the task table (single table inheritance),
+-- task.category becomes the discriminator and category_id is no longer needed
+ALTER TABLE task
+    ADD COLUMN severity           int4         NULL,
+    ADD COLUMN steps_to_reproduce varchar(255) NULL,
+    ADD COLUMN expected_result    varchar(255) NULL,
+    ADD COLUMN actual_result      varchar(255) NULL,
+    ADD COLUMN business_value     varchar(255) NULL,
+    ADD COLUMN deadline           date         NULL,
+    ADD COLUMN feature_version    int4         NULL;
+
+UPDATE task t
+SET severity           = b.severity,
+    steps_to_reproduce = b.steps_to_reproduce,
+    actual_result      = b.actual
+FROM bug b
+WHERE t.category = 0
+  AND b.id = t.category_id;
+
+UPDATE task t
+SET business_value  = f.business_value,
+    deadline        = f.deadline::date,
+    feature_version = f.version
+FROM feature f
+WHERE t.category = 1
+  AND f.id = t.category_id;
+
+ALTER TABLE task DROP COLUMN category_id;
+DROP TABLE bug;
+DROP TABLE feature;
@@ -0,0 +1,2 @@
+-- supports keyset pagination of search: ORDER BY created_at DESC, id DESC with (created_at, id) < cursor
+CREATE INDEX idx_task_created_at_id ON task (created_at, id);
@@ -0,0 +1,14 @@
+-- trigram indexes let the ILIKE '%text%' filters of search use an index instead of a sequential scan
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_task_title_trgm ON task USING gin (title gin_trgm_ops);
+CREATE INDEX idx_task_description_trgm ON task USING gin (description gin_trgm_ops);
+
+-- full-text search: title words weigh more than description words when ranking
+ALTER TABLE task
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX idx_task_search_vector ON task USING gin (search_vector);
@@ -0,0 +1,8 @@
+-- task ids come from a sequence handed out in blocks of 50 instead of an identity column,
+-- so hibernate knows the id before the insert and can send inserts in jdbc batches
+ALTER TABLE task ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE task_id_seq INCREMENT BY 50 MINVALUE 1 NO CYCLE OWNED BY task.id;
+
+-- hibernate uses the ids up to the value returned by nextval, the first block starts after the current ids
+SELECT setval('task_id_seq', COALESCE((SELECT MAX(id) FROM task), 0) + 50, false);
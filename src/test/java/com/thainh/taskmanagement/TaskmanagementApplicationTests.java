@@ -1,16 +1,33 @@
 package com.thainh.taskmanagement;
 
-import io.swagger.v3.oas.annotations.OpenAPIDefinition;
-import io.swagger.v3.oas.annotations.info.Contact;
-import io.swagger.v3.oas.annotations.info.Info;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.internal.NoCachingRegionFactory;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 @SpringBootTest
 class TaskmanagementApplicationTests {
 
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
 	@Test
 	void contextLoads() {
 	}
 
+	// hibernate-jcache on the classpath must not turn the cache on without the l2cache profile
+	@Test
+	void secondLevelCacheDisabledWithoutProfile() {
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		SessionFactoryOptions options = sessionFactory.getSessionFactoryOptions();
+		assertFalse(options.isSecondLevelCacheEnabled());
+		assertFalse(options.isQueryCacheEnabled());
+		assertInstanceOf(NoCachingRegionFactory.class, sessionFactory.getCache().getRegionFactory());
+	}
+
 }
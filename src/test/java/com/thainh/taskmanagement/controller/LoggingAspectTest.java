@@ -0,0 +1,166 @@
+package com.thainh.taskmanagement.controller;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import com.thainh.taskmanagement.dto.BugDto;
+import com.thainh.taskmanagement.utils.LoggingAspect;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoggingAspectTest {
+
+    // logger of the mocked controller, nothing else logs to it
+    private static final String CONTROLLER = "com.thainh.taskmanagement.controller.LoggedController";
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private Signature signature;
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(CONTROLLER);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private LoggingAspect loggingAspect;
+
+    @BeforeEach
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("PATCH", "/api/tasks/update/1");
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(request, new MockHttpServletResponse()));
+        lenient().when(joinPoint.getSignature()).thenReturn(signature);
+        lenient().when(signature.getDeclaringTypeName()).thenReturn(CONTROLLER);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.detachAppender(appender);
+        RequestContextHolder.resetRequestAttributes();
+        if (loggingAspect != null) {
+            loggingAspect.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Request body is logged as received, not as changed by the controller")
+    public void testLogRequestBeforeProceed() throws Throwable {
+        loggingAspect = new LoggingAspect(1.0, 2048, true, 1000);
+        BugDto bugDto = new BugDto();
+        bugDto.setTitle("received");
+        when(joinPoint.getArgs()).thenReturn(new Object[]{bugDto});
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            bugDto.setTitle("changed");
+            return ResponseEntity.ok().build();
+        });
+
+        loggingAspect.aroundAdvice(joinPoint);
+
+        List<String> messages = awaitMessages(2);
+        assertTrue(messages.get(0).startsWith("API CALL - PATCH http://localhost/api/tasks/update/1"));
+        assertTrue(messages.get(0).contains("\"title\":\"received\""));
+        assertFalse(messages.get(0).contains("changed"));
+    }
+
+    @Test
+    @DisplayName("Call not sampled is not serialized nor logged")
+    public void testNotSampled() throws Throwable {
+        loggingAspect = new LoggingAspect(0.0, 2048, false, 1000);
+        when(joinPoint.proceed()).thenReturn(ResponseEntity.ok().build());
+
+        for (int i = 0; i < 100; i++) {
+            loggingAspect.aroundAdvice(joinPoint);
+        }
+
+        verify(joinPoint, times(100)).proceed();
+        verify(joinPoint, never()).getArgs();
+        assertTrue(appender.list.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Body longer than max-body-size is cut")
+    public void testBodyCapped() throws Throwable {
+        loggingAspect = new LoggingAspect(1.0, 100, false, 1000);
+        BugDto bugDto = new BugDto();
+        bugDto.setDescription("x".repeat(10000));
+        when(joinPoint.getArgs()).thenReturn(new Object[]{bugDto});
+        when(joinPoint.proceed()).thenReturn(ResponseEntity.ok().build());
+
+        loggingAspect.aroundAdvice(joinPoint);
+
+        String body = appender.list.get(0).getFormattedMessage().split(" - Body: ")[1];
+        assertEquals(100 + "...(truncated)".length(), body.length());
+        assertTrue(body.endsWith("...(truncated)"));
+    }
+
+    @Test
+    @DisplayName("Entries are dropped instead of waiting when the queue is full")
+    public void testDroppedWhenQueueFull() throws Throwable {
+        loggingAspect = new LoggingAspect(1.0, 2048, true, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        // holds the logging thread on its first entry
+        AppenderBase<ILoggingEvent> blocking = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        blocking.start();
+        logger.addAppender(blocking);
+        when(joinPoint.getArgs()).thenReturn(new Object[0]);
+        when(joinPoint.proceed()).thenReturn(ResponseEntity.ok().build());
+
+        try {
+            // 6 entries: the first runs, the second waits in the queue, the others are dropped
+            long start = System.nanoTime();
+            for (int i = 0; i < 3; i++) {
+                loggingAspect.aroundAdvice(joinPoint);
+            }
+            assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5, "calls did not wait");
+        } finally {
+            release.countDown();
+            logger.detachAppender(blocking);
+        }
+
+        assertEquals(2, awaitMessages(2).size());
+        Thread.sleep(200);
+        assertEquals(2, appender.list.size());
+    }
+
+    private List<String> awaitMessages(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (appender.list.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+    }
+}
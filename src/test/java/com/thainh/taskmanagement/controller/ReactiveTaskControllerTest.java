@@ -0,0 +1,167 @@
+package com.thainh.taskmanagement.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thainh.taskmanagement.dto.SearchDto;
+import com.thainh.taskmanagement.entity.Bug;
+import com.thainh.taskmanagement.entity.Feature;
+import com.thainh.taskmanagement.repository.TaskReactiveRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+public class ReactiveTaskControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TaskReactiveRepository taskReactiveRepository;
+
+    @Test
+    @DisplayName("Fetch task successfully")
+    public void testFetchTask() throws Exception {
+        when(taskReactiveRepository.findById(1L)).thenReturn(Mono.just(bug(1L)));
+        MvcResult result = mockMvc.perform(get("/api/reactive/tasks/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.severity").value(2));
+    }
+
+    @Test
+    @DisplayName("Fetch task failed, not found")
+    public void testFetchTask1() throws Exception {
+        when(taskReactiveRepository.findById(1L)).thenReturn(Mono.empty());
+        MvcResult result = mockMvc.perform(get("/api/reactive/tasks/1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorMessage").value("Task not found with field id : '1'"));
+    }
+
+    @Test
+    @DisplayName("Fetch all tasks as NDJSON, one task per line")
+    public void testFetchAllTasks() throws Exception {
+        when(taskReactiveRepository.findAllByOrderByCreatedAtDesc()).thenReturn(Flux.just(feature(2L), bug(1L)));
+        MvcResult result = mockMvc.perform(get("/api/reactive/tasks/"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(mvcResult -> {
+                    String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+                    assertEquals("one line per task", 2, lines.length);
+                    ObjectMapper objectMapper = new ObjectMapper();
+                    assertEquals("newest first", 2, objectMapper.readTree(lines[0]).get("id").asInt());
+                    assertEquals("feature deadline", "2025/06/01",
+                            objectMapper.readTree(lines[0]).get("deadline").asText());
+                    assertEquals("bug last", 1, objectMapper.readTree(lines[1]).get("id").asInt());
+                });
+    }
+
+    @Test
+    @DisplayName("Search task successfully")
+    public void testSearchTask() throws Exception {
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageNum(1);
+        searchDto.setPageSize(10);
+        searchDto.setStatus(0);
+        searchDto.setUserId(1L);
+        searchDto.setTitle("Test");
+        when(taskReactiveRepository.existsUserById(1L)).thenReturn(Mono.just(true));
+        when(taskReactiveRepository.searchTasks(0, 1L, "Test", null, 10, 10L)).thenReturn(Flux.just(bug(1L)));
+        MvcResult result = mockMvc.perform(post("/api/reactive/search/")
+                        .contentType("application/json")
+                        .content(new ObjectMapper().writeValueAsString(searchDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(mvcResult -> assertEquals("task of the page", 1,
+                        new ObjectMapper().readTree(mvcResult.getResponse().getContentAsString()).get("id").asInt()));
+    }
+
+    @Test
+    @DisplayName("Search task failed, user not found")
+    public void testSearchTask1() throws Exception {
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageSize(10);
+        searchDto.setUserId(1L);
+        when(taskReactiveRepository.existsUserById(1L)).thenReturn(Mono.just(false));
+        when(taskReactiveRepository.searchTasks(any(), any(), any(), any(), anyInt(), anyLong()))
+                .thenReturn(Flux.error(new IllegalStateException("must not be subscribed")));
+        MvcResult result = mockMvc.perform(post("/api/reactive/search/")
+                        .contentType("application/json")
+                        .content(new ObjectMapper().writeValueAsString(searchDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Search task failed, full-text search without text")
+    public void testSearchTask2() throws Exception {
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageSize(10);
+        searchDto.setFullText(true);
+        MvcResult result = mockMvc.perform(post("/api/reactive/search/")
+                        .contentType("application/json")
+                        .content(new ObjectMapper().writeValueAsString(searchDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest());
+        verify(taskReactiveRepository, never()).searchTasksByText(any(), any(), any(), anyInt(), anyLong());
+    }
+
+    private static Bug bug(Long id) {
+        Bug bug = new Bug();
+        bug.setId(id);
+        bug.setTitle("Bug " + id);
+        bug.setUserId(1L);
+        bug.setSeverity(2);
+        bug.setCreatedAt(LocalDateTime.of(2025, 5, 22, 10, 0));
+        return bug;
+    }
+
+    private static Feature feature(Long id) {
+        Feature feature = new Feature();
+        feature.setId(id);
+        feature.setTitle("Feature " + id);
+        feature.setUserId(1L);
+        feature.setDeadline(LocalDate.of(2025, 6, 1));
+        feature.setCreatedAt(LocalDateTime.of(2025, 5, 23, 10, 0));
+        return feature;
+    }
+}
@@ -6,10 +6,11 @@ import com.thainh.taskmanagement.dto.SearchDto;
 import com.thainh.taskmanagement.dto.TaskListDto;
 import com.thainh.taskmanagement.entity.Bug;
 import com.thainh.taskmanagement.entity.Task;
-import com.thainh.taskmanagement.entity.Users;
-import com.thainh.taskmanagement.repository.BugRepository;
 import com.thainh.taskmanagement.repository.TaskRepository;
 import com.thainh.taskmanagement.repository.UsersRepository;
+import com.thainh.taskmanagement.utils.Constants;
+import com.thainh.taskmanagement.utils.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,9 +18,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -29,9 +33,14 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,12 +54,18 @@ public class SearchControllerTest {
     @MockitoBean
     private TaskRepository taskRepository;
 
-    @MockitoBean
-    private BugRepository bugRepository;
-
     @MockitoBean
     private UsersRepository usersRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setUp() {
+        // results of the mocked repository must not be served to the next test
+        cacheManager.getCache(Constants.TASK_SEARCH_CACHE).clear();
+    }
+
     @Test
     @DisplayName("Search task successfully")
     public void testSearchTask() throws Exception {
@@ -65,28 +80,19 @@ public class SearchControllerTest {
         searchDto.setDescription("description");
         String json = objectMapper.writeValueAsString(searchDto);
 
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setTitle("Test Task");
         task.setStatus(0);
-        task.setCategory(0);
-        task.setCategoryId(1L);
+        task.setSeverity(0);
+        task.setStepsToReproduce("Steps to reproduce");
+        task.setExpectedResult("Expected result");
+        task.setActualResult("Actual result");
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(0);
-        bug.setStepsToReproduce("Steps to reproduce");
-        bug.setExpectedResult("Expected result");
-        bug.setActualResult("Actual result");
-
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
 
         Page<Task> page = new PageImpl<>(List.of(task), PageRequest.of(0, 10), 1);
         when(taskRepository.searchTasks(anyInt(), anyLong(), anyString(), anyString(), any())).thenReturn(page);
-        when(bugRepository.findById(1L)).thenReturn(Optional.of(bug));
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
+        when(usersRepository.existsById(1L)).thenReturn(true);
         mockMvc.perform(post("/api/search/")
                         .contentType("application/json")
                         .content(json))
@@ -96,10 +102,44 @@ public class SearchControllerTest {
                             new TypeReference<TaskListDto>() {});
                     assertEquals("fetch all tasks successful",
                             "Test Task",
-                            actual.getResults().get(0).get("title").asText());
+                            actual.getResults().get(0).getTitle());
                 });
     }
 
+    @Test
+    @DisplayName("Search task repeated, second search is served from the cache")
+    public void testSearchTaskCached() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageSize(10);
+        searchDto.setStatus(0);
+        searchDto.setTitle("Test");
+        String json = objectMapper.writeValueAsString(searchDto);
+        searchDto.setTitle("TEST");
+        String upperCaseJson = objectMapper.writeValueAsString(searchDto);
+
+        Bug task = new Bug();
+        task.setId(1L);
+        task.setTitle("Test Task");
+        task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+
+        Page<Task> page = new PageImpl<>(List.of(task), PageRequest.of(0, 10), 1);
+        when(taskRepository.searchTasks(eq(0), isNull(), anyString(), isNull(), any())).thenReturn(page);
+        for (String content : List.of(json, upperCaseJson)) {
+            mockMvc.perform(post("/api/search/")
+                            .contentType("application/json")
+                            .content(content))
+                    .andExpect(status().isOk())
+                    .andExpect(result -> {
+                        var actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                                new TypeReference<TaskListDto>() {});
+                        assertEquals("cached task", "Test Task", actual.getResults().get(0).getTitle());
+                    });
+        }
+        // title is matched case-insensitively, both searches share one entry
+        verify(taskRepository, times(1)).searchTasks(any(), any(), any(), any(), any());
+    }
+
     @Test
     @DisplayName("Search task failed, exception occurred")
     public void testSearchTask1() throws Exception {
@@ -114,31 +154,240 @@ public class SearchControllerTest {
         searchDto.setDescription("description");
         String json = objectMapper.writeValueAsString(searchDto);
 
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setTitle("Test Task");
         task.setStatus(0);
-        task.setCategory(0);
-        task.setCategoryId(1L);
+        task.setSeverity(0);
+        task.setStepsToReproduce("Steps to reproduce");
+        task.setExpectedResult("Expected result");
+        task.setActualResult("Actual result");
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(0);
-        bug.setStepsToReproduce("Steps to reproduce");
-        bug.setExpectedResult("Expected result");
-        bug.setActualResult("Actual result");
-
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
 
         Page<Task> page = new PageImpl<>(List.of(task), PageRequest.of(0, 10), 1);
-        when(taskRepository.searchTasks(anyInt(), anyLong(), anyString(), anyString(), any())).thenReturn(page);
-        when(bugRepository.findById(1L)).thenThrow(new RuntimeException("Exception occurred"));
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
+        when(taskRepository.searchTasks(anyInt(), anyLong(), anyString(), anyString(), any()))
+                .thenThrow(new RuntimeException("Exception occurred"));
+        when(usersRepository.existsById(1L)).thenReturn(true);
         mockMvc.perform(post("/api/search/")
                         .contentType("application/json")
                         .content(json))
                 .andExpect(status().isInternalServerError());
     }
+
+    @Test
+    @DisplayName("Search task without count, only next page is known")
+    public void testSearchTaskNoCount() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageSize(1);
+        searchDto.setTitle("Test");
+        searchDto.setCountMode(Constants.COUNT_MODE.NONE);
+        String json = objectMapper.writeValueAsString(searchDto);
+
+        Bug task = new Bug();
+        task.setId(1L);
+        task.setTitle("Test Task");
+        task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+
+        Slice<Task> slice = new SliceImpl<>(List.of(task), PageRequest.of(0, 1), true);
+        when(taskRepository.searchTasksSlice(isNull(), isNull(), eq("Test"), isNull(), any())).thenReturn(slice);
+        mockMvc.perform(post("/api/search/")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(result -> {
+                    var actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                            new TypeReference<TaskListDto>() {});
+                    assertEquals("one task", 1, actual.getResults().size());
+                    assertEquals("count mode", "NONE", actual.getCountMode());
+                    assertEquals("has next", Boolean.TRUE, actual.getHasNext());
+                    assertNull("total not counted", actual.getTotalTask());
+                });
+        verify(taskRepository, never()).searchTasks(any(), any(), any(), any(), any());
+        verify(taskRepository, never()).explainSearchTasks(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Search task with estimated count from the query plan")
+    public void testSearchTaskEstimatedCount() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageSize(10);
+        searchDto.setTitle("Test");
+        searchDto.setCountMode(Constants.COUNT_MODE.ESTIMATED);
+        String json = objectMapper.writeValueAsString(searchDto);
+
+        Bug task = new Bug();
+        task.setId(1L);
+        task.setTitle("Test Task");
+        task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+
+        Slice<Task> slice = new SliceImpl<>(List.of(task), PageRequest.of(0, 10), true);
+        when(taskRepository.searchTasksSlice(isNull(), isNull(), eq("Test"), isNull(), any())).thenReturn(slice);
+        when(taskRepository.explainSearchTasks(isNull(), isNull(), eq("Test"), isNull()))
+                .thenReturn(List.of("Bitmap Heap Scan on task t  (cost=12.02..51.07 rows=42 width=4)",
+                        "  Recheck Cond: ((title)::text ~~* '%Test%'::text)"));
+        mockMvc.perform(post("/api/search/")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(result -> {
+                    var actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                            new TypeReference<TaskListDto>() {});
+                    assertEquals("count mode", "ESTIMATED", actual.getCountMode());
+                    assertEquals("estimated total", 42L, actual.getTotalTask());
+                    assertEquals("estimated pages", 5, actual.getTotalPage());
+                });
+        verify(taskRepository, never()).searchTasks(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Search task with estimated count, last page gives the exact count without the plan")
+    public void testSearchTaskEstimatedCount1() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageSize(10);
+        searchDto.setTitle("Test");
+        searchDto.setCountMode(Constants.COUNT_MODE.ESTIMATED);
+        String json = objectMapper.writeValueAsString(searchDto);
+
+        Bug task = new Bug();
+        task.setId(1L);
+        task.setTitle("Test Task");
+        task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+
+        Slice<Task> slice = new SliceImpl<>(List.of(task), PageRequest.of(0, 10), false);
+        when(taskRepository.searchTasksSlice(isNull(), isNull(), eq("Test"), isNull(), any())).thenReturn(slice);
+        mockMvc.perform(post("/api/search/")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(result -> {
+                    var actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                            new TypeReference<TaskListDto>() {});
+                    assertEquals("total", 1L, actual.getTotalTask());
+                    assertEquals("pages", 1, actual.getTotalPage());
+                });
+        verify(taskRepository, never()).explainSearchTasks(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Search task with keyset pagination, next cursor returned and total not counted")
+    public void testSearchTask2() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageSize(1);
+        searchDto.setKeyset(true);
+        String json = objectMapper.writeValueAsString(searchDto);
+
+        Bug task = new Bug();
+        task.setId(2L);
+        task.setTitle("Test Task");
+        task.setStatus(0);
+        task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+        Bug task1 = new Bug();
+        task1.setId(1L);
+        task1.setTitle("Test Task 1");
+        task1.setStatus(0);
+        task1.setCreatedAt(LocalDate.parse("2025/05/22", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+
+        when(taskRepository.searchTasksAfter(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), eq(2)))
+                .thenReturn(List.of(task, task1));
+        mockMvc.perform(post("/api/search/")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(result -> {
+                    var actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                            new TypeReference<TaskListDto>() {});
+                    assertEquals("one task returned", 1, actual.getResults().size());
+                    assertEquals("next cursor points to the last task",
+                            new KeysetCursor(task.getCreatedAt(), 2L).encode(),
+                            actual.getNextCursor());
+                    assertNull("total not counted", actual.getTotalTask());
+                });
+        verify(taskRepository, never()).countTasks(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Search task with keyset pagination failed, invalid cursor")
+    public void testSearchTask3() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageSize(10);
+        searchDto.setKeyset(true);
+        searchDto.setCursor("not-a-cursor");
+        String json = objectMapper.writeValueAsString(searchDto);
+
+        mockMvc.perform(post("/api/search/")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Search task with full-text mode, title and description searched together")
+    public void testSearchTask4() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageSize(10);
+        searchDto.setFullText(true);
+        searchDto.setTitle("login");
+        searchDto.setDescription("crash");
+        String json = objectMapper.writeValueAsString(searchDto);
+
+        Bug task = new Bug();
+        task.setId(1L);
+        task.setTitle("Login page");
+        task.setDescription("App crash after login");
+        task.setStatus(0);
+        task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+
+        Page<Task> page = new PageImpl<>(List.of(task), PageRequest.of(0, 10), 1);
+        when(taskRepository.searchTasksByText(isNull(), isNull(), eq("login crash"), any())).thenReturn(page);
+        mockMvc.perform(post("/api/search/")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(result -> {
+                    var actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                            new TypeReference<TaskListDto>() {});
+                    assertEquals("search by text successful",
+                            "Login page",
+                            actual.getResults().get(0).getTitle());
+                });
+        verify(taskRepository, never()).searchTasks(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Search task with full-text mode failed, no text to search")
+    public void testSearchTask5() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageSize(10);
+        searchDto.setFullText(true);
+        String json = objectMapper.writeValueAsString(searchDto);
+
+        mockMvc.perform(post("/api/search/")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Search task failed, page size over the limit")
+    public void testSearchTask6() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SearchDto searchDto = new SearchDto();
+        searchDto.setPageSize(Integer.MAX_VALUE);
+        String json = objectMapper.writeValueAsString(searchDto);
+
+        mockMvc.perform(post("/api/search/")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.pageSize").value("Page size must be between 1 and 1000"));
+        verify(taskRepository, never()).searchTasks(any(), any(), any(), any(), any());
+        verify(taskRepository, never()).searchTasksAfter(any(), any(), any(), any(), any(), any(), anyInt());
+    }
 }
@@ -5,15 +5,20 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.thainh.taskmanagement.dto.BugDto;
 import com.thainh.taskmanagement.dto.FeatureDto;
+import com.thainh.taskmanagement.dto.TaskBatchResultDto;
+import com.thainh.taskmanagement.dto.TaskDto;
 import com.thainh.taskmanagement.dto.TaskListDto;
 import com.thainh.taskmanagement.entity.Bug;
 import com.thainh.taskmanagement.entity.Feature;
+import com.thainh.taskmanagement.entity.IdempotencyKey;
 import com.thainh.taskmanagement.entity.Task;
-import com.thainh.taskmanagement.entity.Users;
-import com.thainh.taskmanagement.repository.BugRepository;
-import com.thainh.taskmanagement.repository.FeatureRepository;
+import com.thainh.taskmanagement.repository.IdempotencyKeyRepository;
 import com.thainh.taskmanagement.repository.TaskRepository;
 import com.thainh.taskmanagement.repository.UsersRepository;
+import com.thainh.taskmanagement.utils.Constants;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +26,7 @@ import org.mockito.MockedStatic;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
@@ -28,22 +34,35 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.security.MessageDigest;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
 @AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
 public class TaskControllerTest {
 
     @Autowired
@@ -53,13 +72,17 @@ public class TaskControllerTest {
     private TaskRepository taskRepository;
 
     @MockitoBean
-    private BugRepository bugRepository;
+    private UsersRepository usersRepository;
 
-    @MockitoBean
-    private FeatureRepository featureRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
-    @MockitoBean
-    private UsersRepository usersRepository;
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    // mapper of the application, which IdempotencyAspect hashes the request with
+    @Autowired
+    private ObjectMapper appObjectMapper;
 
     @Test
     @DisplayName("Fetch all tasks successfully")
@@ -71,22 +94,17 @@ public class TaskControllerTest {
         bugDto.setTitle("Test Task");
         bugDto.setSeverity(0);
 
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setTitle("Test Task");
-        task.setCategory(0);
-        task.setCategoryId(1L);
+        task.setSeverity(0);
+        task.setStepsToReproduce("Steps to reproduce");
+        task.setExpectedResult("Expected result");
+        task.setActualResult("Actual result");
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(0);
-        bug.setStepsToReproduce("Steps to reproduce");
-        bug.setExpectedResult("Expected result");
-        bug.setActualResult("Actual result");
 
         Page<Task> page = new PageImpl<>(List.of(task), PageRequest.of(0, 10), 1);
         when(taskRepository.findAllByOrderByCreatedAtDesc(any())).thenReturn(page);
-        when(bugRepository.findById(1L)).thenReturn(Optional.of(bug));
         mockMvc.perform(get("/api/tasks/"))
                 .andExpect(status().isOk())
                 .andExpect(result -> {
@@ -94,7 +112,7 @@ public class TaskControllerTest {
                             new TypeReference<TaskListDto>() {});
                     assertEquals("fetch all tasks successful",
                             bugDto.getSeverity(),
-                            actual.getResults().get(0).get("severity").asInt());
+                            ((BugDto) actual.getResults().get(0)).getSeverity());
                 });
     }
 
@@ -102,10 +120,10 @@ public class TaskControllerTest {
     @DisplayName("Fetch a task by id successfully")
     public void testFetchTaskById() throws Exception {
         ObjectMapper objectMapper = new ObjectMapper();
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
-        task.setCategory(1);
-        task.setCategoryId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
 
         FeatureDto featureDto = new FeatureDto();
@@ -113,13 +131,7 @@ public class TaskControllerTest {
         featureDto.setTitle("Test Task");
         featureDto.setDeadline("2025/05/23");
 
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("Test feature");
-        feature.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(featureRepository.findById(1L)).thenReturn(Optional.of(feature));
 
         mockMvc.perform(get("/api/tasks/1"))
                 .andExpect(status().isOk())
@@ -132,14 +144,45 @@ public class TaskControllerTest {
                 });
     }
 
+    @Test
+    @DisplayName("Fetch a task by id with If-None-Match, 304 while the version is unchanged")
+    public void testFetchTaskByIdNotModified() throws Exception {
+        Feature task = new Feature();
+        task.setId(1L);
+        task.setVersion(3L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
+        task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        when(taskRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/tasks/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.version").value(3));
+        mockMvc.perform(get("/api/tasks/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+        verify(taskRepository, times(1)).findById(1L);
+
+        // changed since
+        when(taskRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+        task.setVersion(4L);
+        mockMvc.perform(get("/api/tasks/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
     @Test
     @DisplayName("Fetch a task by id failed, task not found")
     public void testFetchTaskById1() throws Exception {
         ObjectMapper objectMapper = new ObjectMapper();
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
-        task.setCategory(1);
-        task.setCategoryId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
 
         FeatureDto featureDto = new FeatureDto();
@@ -147,13 +190,7 @@ public class TaskControllerTest {
         featureDto.setTitle("Test Task");
         featureDto.setDeadline("2025/05/23");
 
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("Test feature");
-        feature.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-
         when(taskRepository.findById(1L)).thenReturn(Optional.empty());
-        when(featureRepository.findById(1L)).thenReturn(Optional.of(feature));
 
         mockMvc.perform(get("/api/tasks/1"))
                 .andExpect(status().isNotFound())
@@ -170,10 +207,10 @@ public class TaskControllerTest {
     @DisplayName("Fetch a task by id failed, exception occurred")
     public void testFetchTaskById2() throws Exception {
         ObjectMapper objectMapper = new ObjectMapper();
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
-        task.setCategory(1);
-        task.setCategoryId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
 
         FeatureDto featureDto = new FeatureDto();
@@ -181,13 +218,7 @@ public class TaskControllerTest {
         featureDto.setTitle("Test Task");
         featureDto.setDeadline("2025/05/23");
 
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("Test feature");
-        feature.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(featureRepository.findById(1L)).thenThrow(new RuntimeException("Exception occurred"));
+        when(taskRepository.findById(1L)).thenThrow(new RuntimeException("Exception occurred"));
 
         mockMvc.perform(get("/api/tasks/1"))
                 .andExpect(status().isInternalServerError())
@@ -203,19 +234,13 @@ public class TaskControllerTest {
     @Test
     @DisplayName("Delete a task successfully")
     public void testDeleteTask() throws Exception {
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
-        task.setCategory(1);
-        task.setCategoryId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
 
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("Test feature");
-        feature.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(featureRepository.findById(1L)).thenReturn(Optional.of(feature));
         mockMvc.perform(delete("/api/tasks/delete/1"))
                 .andExpect(status().isOk());
     }
@@ -223,19 +248,13 @@ public class TaskControllerTest {
     @Test
     @DisplayName("Delete a task failed, task not found")
     public void testDeleteTask1() throws Exception {
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
-        task.setCategory(1);
-        task.setCategoryId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
 
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("Test feature");
-        feature.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-
         when(taskRepository.findById(1L)).thenReturn(Optional.empty());
-        when(featureRepository.findById(1L)).thenReturn(Optional.of(feature));
         mockMvc.perform(delete("/api/tasks/delete/1"))
                 .andExpect(status().isNotFound());
     }
@@ -245,21 +264,12 @@ public class TaskControllerTest {
     public void testUpdateTask() throws Exception {
         ObjectMapper objectMapper = new ObjectMapper();
 
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
-        task.setCategory(1);
-        task.setCategoryId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/25", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
 
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("Test feature");
-        feature.setDeadline(LocalDate.parse("2025/05/25", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
         FeatureDto featureDto = new FeatureDto();
         featureDto.setCategory(1);
         featureDto.setStatus(0);
@@ -268,9 +278,8 @@ public class TaskControllerTest {
         featureDto.setDeadline("2025/05/25");
         String json = objectMapper.writeValueAsString(featureDto);
 
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
+        when(usersRepository.existsById(1L)).thenReturn(true);
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(featureRepository.findById(1L)).thenReturn(Optional.of(feature));
 
         LocalDate mockDate = LocalDate.parse("2025/05/20", DateTimeFormatter.ofPattern("yyyy/MM/dd"));
 
@@ -293,26 +302,89 @@ public class TaskControllerTest {
         }
     }
 
+    @Test
+    @DisplayName("Update a task failed, If-Match is not the current version")
+    public void testUpdateTaskIfMatch() throws Exception {
+        Bug task = new Bug();
+        task.setId(1L);
+        task.setUserId(1L);
+        task.setVersion(3L);
+
+        BugDto bugDto = new BugDto();
+        bugDto.setCategory(0);
+        bugDto.setStatus(0);
+        bugDto.setUserId(1L);
+        bugDto.setTitle("New Task");
+        // version of the body is not a condition
+        bugDto.setVersion(2L);
+        String json = new ObjectMapper().writeValueAsString(bugDto);
+
+        when(usersRepository.existsById(1L)).thenReturn(true);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+
+        mockMvc.perform(patch("/api/tasks/update/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("task not updated", null, task.getTitle());
+        mockMvc.perform(patch("/api/tasks/update/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/tasks/update/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isOk());
+        assertEquals("task updated", "New Task", task.getTitle());
+    }
+
+    @Test
+    @DisplayName("Update a task with a list in If-Match, updated when one of them is the current version")
+    public void testUpdateTaskIfMatch1() throws Exception {
+        Bug task = new Bug();
+        task.setId(1L);
+        task.setUserId(1L);
+        task.setVersion(3L);
+
+        BugDto bugDto = new BugDto();
+        bugDto.setCategory(0);
+        bugDto.setStatus(0);
+        bugDto.setUserId(1L);
+        bugDto.setTitle("New Task");
+        String json = new ObjectMapper().writeValueAsString(bugDto);
+
+        when(usersRepository.existsById(1L)).thenReturn(true);
+        when(taskRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+
+        mockMvc.perform(patch("/api/tasks/update/1")
+                        .header("If-Match", "\"2\", \"4\"")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("task not updated", null, task.getTitle());
+        mockMvc.perform(patch("/api/tasks/update/1")
+                        .header("If-Match", "\"3\", \"4\"")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isOk());
+        assertEquals("task updated", "New Task", task.getTitle());
+    }
+
     @Test
     @DisplayName("Update a task failed, category not found")
     public void testUpdateTask1() throws Exception {
         ObjectMapper objectMapper = new ObjectMapper();
 
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
-        task.setCategory(1);
-        task.setCategoryId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/25", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
 
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("Test feature");
-        feature.setDeadline(LocalDate.parse("2025/05/25", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
         FeatureDto featureDto = new FeatureDto();
         featureDto.setCategory(2);
         featureDto.setStatus(0);
@@ -321,9 +393,8 @@ public class TaskControllerTest {
         featureDto.setDeadline("2025/05/25");
         String json = objectMapper.writeValueAsString(featureDto);
 
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
+        when(usersRepository.existsById(1L)).thenReturn(true);
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(featureRepository.findById(1L)).thenReturn(Optional.of(feature));
 
         mockMvc.perform(patch("/api/tasks/update/1")
                         .contentType("application/json")
@@ -336,21 +407,12 @@ public class TaskControllerTest {
     public void testUpdateTask2() throws Exception {
         ObjectMapper objectMapper = new ObjectMapper();
 
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
-        task.setCategory(1);
-        task.setCategoryId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/25", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
 
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("Test feature");
-        feature.setDeadline(LocalDate.parse("2025/05/25", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
         BugDto bugDto = new BugDto();
         bugDto.setCategory(0);
         bugDto.setStatus(0);
@@ -359,10 +421,9 @@ public class TaskControllerTest {
         bugDto.setSeverity(1);
         String json = objectMapper.writeValueAsString(bugDto);
 
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
+        when(usersRepository.existsById(1L)).thenReturn(true);
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(featureRepository.findById(1L)).thenReturn(Optional.of(feature));
-        doThrow(RuntimeException.class).when(featureRepository).delete(any(Feature.class));
+        doThrow(RuntimeException.class).when(taskRepository).switchCategory(any(Bug.class));
 
         mockMvc.perform(patch("/api/tasks/update/1")
                         .contentType("application/json")
@@ -384,21 +445,12 @@ public class TaskControllerTest {
     public void testCreateTask() throws Exception {
         ObjectMapper objectMapper = new ObjectMapper();
 
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
-        task.setCategory(1);
-        task.setCategoryId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
 
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("Test feature");
-        feature.setDeadline(LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
         FeatureDto featureDto = new FeatureDto();
         featureDto.setCategory(1);
         featureDto.setStatus(0);
@@ -407,9 +459,8 @@ public class TaskControllerTest {
         featureDto.setDeadline("2025/05/24");
         String json = objectMapper.writeValueAsString(featureDto);
 
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
+        when(usersRepository.existsById(1L)).thenReturn(true);
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(featureRepository.findById(1L)).thenReturn(Optional.of(feature));
 
         LocalDate mockDate = LocalDate.parse("2025/05/20", DateTimeFormatter.ofPattern("yyyy/MM/dd"));
 
@@ -432,26 +483,112 @@ public class TaskControllerTest {
         }
     }
 
+    @Test
+    @DisplayName("Create task retried with the same Idempotency-Key, created once and replayed")
+    public void testCreateTaskIdempotent() throws Exception {
+        BugDto bugDto = new BugDto();
+        bugDto.setCategory(0);
+        bugDto.setStatus(0);
+        bugDto.setUserId(1L);
+        bugDto.setTitle("New Task");
+        String json = new ObjectMapper().writeValueAsString(bugDto);
+        String key = UUID.randomUUID().toString();
+
+        when(usersRepository.existsById(1L)).thenReturn(true);
+        mockMvc.perform(post("/api/tasks/create")
+                        .header(Constants.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(Constants.IDEMPOTENT_REPLAYED_HEADER));
+        mockMvc.perform(post("/api/tasks/create")
+                        .header(Constants.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(Constants.IDEMPOTENT_REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.statusMessage").value(Constants.CREATE_SUCCESS));
+        verify(taskRepository, times(1)).save(any());
+
+        // same key, other request
+        bugDto.setTitle("Other Task");
+        mockMvc.perform(post("/api/tasks/create")
+                        .header(Constants.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType("application/json")
+                        .content(new ObjectMapper().writeValueAsString(bugDto)))
+                .andExpect(status().isUnprocessableEntity());
+        verify(taskRepository, times(1)).save(any());
+    }
+
+    @Test
+    @DisplayName("Create task failed with an Idempotency-Key, the key can be retried")
+    public void testCreateTaskIdempotent1() throws Exception {
+        BugDto bugDto = new BugDto();
+        bugDto.setCategory(0);
+        bugDto.setStatus(0);
+        bugDto.setUserId(1L);
+        bugDto.setTitle("New Task");
+        String json = new ObjectMapper().writeValueAsString(bugDto);
+        String key = UUID.randomUUID().toString();
+
+        when(usersRepository.existsById(1L)).thenReturn(false, true);
+        mockMvc.perform(post("/api/tasks/create")
+                        .header(Constants.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/tasks/create")
+                        .header(Constants.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(Constants.IDEMPOTENT_REPLAYED_HEADER));
+        verify(taskRepository, times(1)).save(any());
+    }
+
+    @Test
+    @DisplayName("Create task retried after its first request never finished, the stale key is taken over")
+    public void testCreateTaskIdempotent2() throws Exception {
+        BugDto bugDto = new BugDto();
+        bugDto.setCategory(0);
+        bugDto.setStatus(0);
+        bugDto.setUserId(1L);
+        bugDto.setTitle("New Task");
+        String json = new ObjectMapper().writeValueAsString(bugDto);
+        String key = UUID.randomUUID().toString();
+        // running row of a request whose instance died two minutes ago, hashed as IdempotencyAspect does
+        String requestHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(appObjectMapper.writeValueAsBytes(new Object[]{appObjectMapper.readValue(json, TaskDto.class)})));
+        idempotencyKeyRepository.save(new IdempotencyKey(key, "POST /api/tasks/create", requestHash,
+                null, null, LocalDateTime.now().minusMinutes(2)));
+
+        when(usersRepository.existsById(1L)).thenReturn(true);
+        try {
+            mockMvc.perform(post("/api/tasks/create")
+                            .header(Constants.IDEMPOTENCY_KEY_HEADER, key)
+                            .contentType("application/json")
+                            .content(json))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().doesNotExist(Constants.IDEMPOTENT_REPLAYED_HEADER));
+            verify(taskRepository, times(1)).save(any());
+            assertEquals("response of the retry stored", 201,
+                    idempotencyKeyRepository.findById(key).orElseThrow().getStatusCode());
+        } finally {
+            idempotencyKeyRepository.deleteById(key);
+        }
+    }
+
     @Test
     @DisplayName("Create task failed, invalid category")
     public void testCreateTask1() throws Exception {
         ObjectMapper objectMapper = new ObjectMapper();
 
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
-        task.setCategory(1);
-        task.setCategoryId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
 
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("Test feature");
-        feature.setDeadline(LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
         FeatureDto featureDto = new FeatureDto();
         featureDto.setCategory(2);
         featureDto.setStatus(0);
@@ -463,7 +600,101 @@ public class TaskControllerTest {
         mockMvc.perform(post("/api/tasks/create")
                         .contentType("application/json")
                         .content(json))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> {
+                    var actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                            new TypeReference<Map<String, String>>() {});
+                    assertEquals("category is not bug or feature",
+                            "Invalid category: [2]",
+                            actual.get("errorMessage"));
+                });
+        verifyNoInteractions(usersRepository, taskRepository);
+    }
+
+    @Test
+    @DisplayName("Create task failed, malformed json is rejected without parser details")
+    public void testCreateTask3() throws Exception {
+        mockMvc.perform(post("/api/tasks/create")
+                        .contentType("application/json")
+                        .content("{\"category\": 0, \"title\": \"New Task\", \"status\": \"x"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value("Malformed JSON request"));
+        verifyNoInteractions(usersRepository, taskRepository);
+    }
+
+    @Test
+    @DisplayName("Create or update task failed, userId is missing, validated before the user is looked up")
+    public void testCreateTask4() throws Exception {
+        Bug task = new Bug();
+        task.setId(1L);
+        task.setUserId(1L);
+        task.setStatus(0);
+        String json = "{\"category\": 0, \"status\": 0, \"title\": \"New Task\"}";
+
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        mockMvc.perform(post("/api/tasks/create")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value("must not be null"));
+        mockMvc.perform(patch("/api/tasks/update/1")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value("must not be null"));
+        verifyNoInteractions(usersRepository);
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Create tasks in batch, result of each task is returned")
+    public void testCreateTasks() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        BugDto bugDto = new BugDto();
+        bugDto.setCategory(0);
+        bugDto.setStatus(0);
+        bugDto.setUserId(1L);
+        bugDto.setTitle("New Bug");
+        bugDto.setSeverity(1);
+
+        FeatureDto featureDto = new FeatureDto();
+        featureDto.setCategory(1);
+        featureDto.setStatus(0);
+        featureDto.setUserId(1L);
+        featureDto.setDeadline("2025/05/24");
+        String json = objectMapper.writeValueAsString(List.of(bugDto, featureDto));
+
+        when(usersRepository.existsById(1L)).thenReturn(true);
+        when(taskRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            tasks.forEach(task -> task.setId(51L));
+            return tasks;
+        });
+
+        mockMvc.perform(post("/api/tasks/batch")
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(result -> {
+                    var actual = objectMapper.readValue(result.getResponse().getContentAsString(),
+                            TaskBatchResultDto.class);
+                    assertEquals("created", 1, actual.getCreated());
+                    assertEquals("failed", 1, actual.getFailed());
+                    assertEquals("bug id", 51L, actual.getResults().get(0).getId());
+                    assertEquals("feature without title", Constants.BATCH_ITEM_FAILED,
+                            actual.getResults().get(1).getStatus());
+                });
+    }
+
+    @Test
+    @DisplayName("Create tasks in batch failed, empty batch")
+    public void testCreateTasks1() throws Exception {
+        mockMvc.perform(post("/api/tasks/batch")
+                        .contentType("application/json")
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(usersRepository, taskRepository);
     }
 
     @Test
@@ -471,21 +702,12 @@ public class TaskControllerTest {
     public void testCreateTask2() throws Exception {
         ObjectMapper objectMapper = new ObjectMapper();
 
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
-        task.setCategory(1);
-        task.setCategoryId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
 
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("Test feature");
-        feature.setDeadline(LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
-
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
         FeatureDto featureDto = new FeatureDto();
         featureDto.setCategory(1);
         featureDto.setStatus(0);
@@ -494,7 +716,7 @@ public class TaskControllerTest {
         featureDto.setDeadline("2025/05/24");
         String json = objectMapper.writeValueAsString(featureDto);
 
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
+        when(usersRepository.existsById(1L)).thenReturn(true);
 
         LocalDate mockDate = LocalDate.parse("2025/05/25", DateTimeFormatter.ofPattern("yyyy/MM/dd"));
 
@@ -506,4 +728,100 @@ public class TaskControllerTest {
                     .andExpect(status().isBadRequest());
         }
     }
+
+    @Test
+    @DisplayName("Delete tasks by ids, number of deleted tasks is returned")
+    public void testDeleteTasks() throws Exception {
+        when(taskRepository.deleteByIds(any())).thenReturn(2);
+        mockMvc.perform(delete("/api/tasks")
+                        .contentType("application/json")
+                        .content("{\"ids\": [1, 2, 3]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+        verify(taskRepository, times(1)).deleteByIds(new Long[]{1L, 2L, 3L});
+    }
+
+    @Test
+    @DisplayName("Change status of tasks failed, invalid status")
+    public void testUpdateTasksStatus() throws Exception {
+        mockMvc.perform(patch("/api/tasks/status")
+                        .contentType("application/json")
+                        .content("{\"ids\": [1], \"status\": 3}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/tasks/status")
+                        .contentType("application/json")
+                        .content("{\"filter\": {\"userId\": 1}, \"status\": 2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(0));
+        verify(taskRepository, never()).updateStatusByIds(any(), anyInt());
+        verify(taskRepository, times(1)).updateStatus(null, 1L, null, null, 2);
+    }
+
+    @Test
+    @DisplayName("Export all tasks successfully, one task per line")
+    public void testExportTasks() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Bug bug = new Bug();
+        bug.setId(1L);
+        bug.setTitle("Test Bug");
+        bug.setSeverity(0);
+        bug.setCreatedAt(LocalDate.parse("2025/05/22", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+        Feature feature = new Feature();
+        feature.setId(2L);
+        feature.setTitle("Test Feature");
+        feature.setBusinessValue("Business value");
+        feature.setDeadline(LocalDate.parse("2025/06/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
+        feature.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+
+        AtomicBoolean closed = new AtomicBoolean();
+        when(taskRepository.streamAllByOrderByCreatedAtDesc())
+                .thenReturn(Stream.<Task>of(feature, bug).onClose(() -> closed.set(true)));
+        MvcResult mvcResult = mockMvc.perform(get("/api/tasks/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(Constants.APPLICATION_NDJSON_VALUE))
+                .andExpect(result -> {
+                    String[] lines = result.getResponse().getContentAsString().split("\n");
+                    assertEquals("one line per task", 2, lines.length);
+                    assertEquals("feature exported first", "Test Feature",
+                            objectMapper.readTree(lines[0]).get("title").asText());
+                    assertEquals("bug exported last", "Test Bug",
+                            objectMapper.readTree(lines[1]).get("title").asText());
+                });
+        assertEquals("database cursor closed", true, closed.get());
+        verify(taskRepository, never()).findAllByOrderByCreatedAtDesc(any());
+    }
+
+    @Test
+    @DisplayName("Fetch a task, service metrics recorded and exposed to prometheus")
+    public void testFetchTaskByIdMetrics() throws Exception {
+        Feature task = new Feature();
+        task.setId(1L);
+        task.setBusinessValue("Test feature");
+        task.setDeadline(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
+        task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        Timer timer = meterRegistry.timer("service.calls",
+                "service", "TaskServiceImpl", "method", "fetchTaskById", "exception", "none");
+        DistributionSummary repositoryCalls = meterRegistry.summary("service.repository.calls",
+                "service", "TaskServiceImpl", "method", "fetchTaskById");
+        long calls = timer.count();
+        long operations = repositoryCalls.count();
+
+        mockMvc.perform(get("/api/tasks/1"))
+                .andExpect(status().isOk());
+
+        assertEquals("one more fetch timed", calls + 1, timer.count());
+        // repositories are mocks here, only the number of operations is checked
+        assertEquals("repository calls recorded once per operation", operations + 1, repositoryCalls.count());
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("service_calls_seconds_bucket")))
+                .andExpect(content().string(containsString("service_repository_calls")));
+        mockMvc.perform(get("/actuator/metrics/service.calls").param("tag", "method:fetchTaskById"))
+                .andExpect(status().isOk());
+    }
 }
@@ -0,0 +1,51 @@
+package com.thainh.taskmanagement.controller;
+
+import com.thainh.taskmanagement.service.ITaskService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+// the async timeout stands in for the 30s of tomcat, the export must outlast it
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.mvc.async.request-timeout=500ms", "task.export.timeout=10s"})
+public class TaskExportTimeoutTest {
+
+    @LocalServerPort
+    private int port;
+
+    @MockitoBean
+    private ITaskService taskService;
+
+    @Test
+    @DisplayName("Export running longer than the default async timeout is sent completely")
+    public void testExportLongerThanAsyncTimeout() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write("{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            outputStream.flush();
+            Thread.sleep(1500);
+            outputStream.write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(taskService).exportTasks(any());
+
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tasks/export")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"id\":2}\n{\"id\":1}\n", response.body());
+    }
+}
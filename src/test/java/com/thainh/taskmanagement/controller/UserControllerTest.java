@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.thainh.taskmanagement.dto.UsersDto;
 import com.thainh.taskmanagement.entity.Users;
 import com.thainh.taskmanagement.repository.UsersRepository;
+import com.thainh.taskmanagement.utils.Constants;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,10 +20,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -94,6 +98,29 @@ public class UserControllerTest {
                 });
     }
 
+    @Test
+    @DisplayName("Create user retried with the same Idempotency-Key, created once and replayed")
+    public void testCreateUserIdempotent() throws Exception {
+        UsersDto usersDto = new UsersDto();
+        usersDto.setUsername("thainh");
+        usersDto.setFullName("Nguyen Thai");
+        String json = new ObjectMapper().writeValueAsString(usersDto);
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/api/users/create")
+                        .header(Constants.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/users/create")
+                        .header(Constants.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(Constants.IDEMPOTENT_REPLAYED_HEADER, "true"));
+        verify(usersRepository, times(1)).save(any());
+    }
+
     @Test
     @DisplayName("Create user failed: user exist")
     public void testCreateUser1() throws Exception {
@@ -0,0 +1,87 @@
+package com.thainh.taskmanagement.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/***
+ * bulk statements select the same tasks as the search filter, unknown ids are skipped
+ */
+@SpringBootTest
+@Transactional
+public class TaskBulkRepositoryTest {
+
+    private static final int SEEDED_TASKS = 30;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void seed() {
+        // negative ids and user ids never collide with rows of the application
+        jdbcTemplate.update("DELETE FROM task WHERE id < 0");
+        jdbcTemplate.update("""
+                INSERT INTO task (id, title, description, category, status, user_id, created_at, severity)
+                SELECT -g, 'bulk test ' || g, 'seeded task ' || g, 0, g % 3, -1 - (g % 2), now(), 1
+                FROM generate_series(1, ?) g
+                """, SEEDED_TASKS);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM task WHERE id < 0");
+    }
+
+    @Test
+    @DisplayName("Delete tasks by ids, unknown ids are not counted")
+    public void testDeleteByIds() {
+        assertEquals(3, taskRepository.deleteByIds(new Long[]{-1L, -2L, -3L, Long.MIN_VALUE}));
+        assertEquals(SEEDED_TASKS - 3, countSeeded());
+        assertFalse(taskRepository.existsById(-2L));
+    }
+
+    @Test
+    @DisplayName("Delete tasks matching the filter")
+    public void testDeleteTasks() {
+        // user -2 has the odd ids, status 0 every third id: 3, 9, 15, 21, 27
+        assertEquals(5, taskRepository.deleteTasks(0, -2L, null, null));
+        assertEquals(SEEDED_TASKS - 5, countSeeded());
+        assertEquals(0, taskRepository.deleteTasks(0, -2L, null, null));
+    }
+
+    @Test
+    @DisplayName("Change status of tasks by ids, tasks already in the status are not counted")
+    public void testUpdateStatusByIds() {
+        // -2 is already done
+        assertEquals(2, taskRepository.updateStatusByIds(new Long[]{-1L, -2L, -3L}, 2));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task WHERE id IN (-1, -2, -3) AND status = 2", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task WHERE id IN (-1, -3) AND updated_by = 'Admin' AND updated_at IS NOT NULL",
+                Integer.class));
+    }
+
+    @Test
+    @DisplayName("Change status of tasks matching the filter")
+    public void testUpdateStatus() {
+        // title filter matches 'bulk test 1', 'bulk test 10'..'bulk test 19', status 0 among them: 12, 15, 18
+        assertEquals(3, taskRepository.updateStatus(0, null, "bulk test 1", null, 1));
+        assertEquals(0, taskRepository.updateStatus(0, null, "bulk test 1", null, 1));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM task WHERE id < 0 AND title LIKE 'bulk test 1%' AND status = 0", Integer.class));
+    }
+
+    private int countSeeded() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task WHERE id < 0", Integer.class);
+    }
+}
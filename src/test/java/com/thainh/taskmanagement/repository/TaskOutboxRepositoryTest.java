@@ -0,0 +1,74 @@
+package com.thainh.taskmanagement.repository;
+
+import com.thainh.taskmanagement.entity.TaskOutbox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class TaskOutboxRepositoryTest {
+
+    @Autowired
+    private TaskOutboxRepository taskOutboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        ids = taskOutboxRepository.saveAll(List.of(row(now.minusSeconds(3)), row(now.minusSeconds(2)),
+                        row(now.minusSeconds(1)), row(now.plusHours(1))))
+                .stream()
+                .map(TaskOutbox::getId)
+                .toList();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskOutboxRepository.deleteAllById(ids);
+    }
+
+    @Test
+    @DisplayName("Concurrent dispatchers lock different due rows, oldest first, without waiting")
+    public void testLockDueSkipLocked() {
+        List<Long> first = transactionTemplate.execute(status -> {
+            List<Long> locked = lockDue();
+            // a second dispatcher, in its own transaction while the first one holds its rows
+            List<Long> second = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(other -> lockDue()))
+                    .join();
+            assertEquals(List.of(ids.get(2)), second);
+            return locked;
+        });
+        assertEquals(List.of(ids.get(0), ids.get(1)), first);
+        Set<Long> all = new HashSet<>(first);
+        all.add(ids.get(2));
+        // the row not due yet is locked by neither
+        assertFalse(all.contains(ids.get(3)));
+    }
+
+    private List<Long> lockDue() {
+        return taskOutboxRepository.lockDue(LocalDateTime.now(), 10, 2).stream()
+                .map(TaskOutbox::getId)
+                .filter(ids::contains)
+                .toList();
+    }
+
+    private TaskOutbox row(LocalDateTime availableAt) {
+        return new TaskOutbox(null, "CREATED", 1L, "{}", availableAt, availableAt, 0, null);
+    }
+}
@@ -0,0 +1,125 @@
+package com.thainh.taskmanagement.repository;
+
+import com.thainh.taskmanagement.entity.Bug;
+import com.thainh.taskmanagement.entity.Feature;
+import com.thainh.taskmanagement.entity.Task;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/***
+ * r2dbc queries return the same tasks in the same order as the jpa queries they mirror.
+ * rows are committed, r2dbc reads them on its own connections
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TaskReactiveRepositoryTest {
+
+    private static final int SEEDED_TASKS = 300;
+
+    @Autowired
+    private TaskReactiveRepository taskReactiveRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public void seed() {
+        // negative ids and user ids never collide with rows of the application
+        jdbcTemplate.update("DELETE FROM task WHERE id < 0");
+        jdbcTemplate.update("""
+                INSERT INTO task (id, title, description, category, status, user_id, created_at,
+                                  severity, steps_to_reproduce, business_value, deadline)
+                SELECT -g, 'reactive test ' || g, 'seeded task ' || g, g % 2, g % 3, -1 - (g % 5),
+                       now() - (g % 50) * interval '1 minute',
+                       CASE WHEN g % 2 = 0 THEN 2 END, CASE WHEN g % 2 = 0 THEN 'steps ' || g END,
+                       CASE WHEN g % 2 = 1 THEN 'value ' || g END, CASE WHEN g % 2 = 1 THEN DATE '2025-06-01' END
+                FROM generate_series(1, ?) g
+                """, SEEDED_TASKS);
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM task WHERE id < 0");
+    }
+
+    @Test
+    @DisplayName("Find bug and feature by id")
+    public void testFindById() {
+        StepVerifier.create(taskReactiveRepository.findById(-2L))
+                .assertNext(task -> {
+                    Bug bug = assertInstanceOf(Bug.class, task);
+                    assertEquals("reactive test 2", bug.getTitle());
+                    assertEquals(-3L, bug.getUserId());
+                    assertEquals(2, bug.getSeverity());
+                    assertEquals("steps 2", bug.getStepsToReproduce());
+                    assertNotNull(bug.getCreatedAt());
+                })
+                .verifyComplete();
+        StepVerifier.create(taskReactiveRepository.findById(-3L))
+                .assertNext(task -> {
+                    Feature feature = assertInstanceOf(Feature.class, task);
+                    assertEquals("value 3", feature.getBusinessValue());
+                    assertEquals(LocalDate.of(2025, 6, 1), feature.getDeadline());
+                })
+                .verifyComplete();
+        StepVerifier.create(taskReactiveRepository.findById(-SEEDED_TASKS - 1L))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Search returns the page of the jpa search")
+    public void testSearchTasks() {
+        assertSamePage(1, -2L, null, null, 0);
+        assertSamePage(1, -2L, null, null, 1);
+        assertSamePage(null, -4L, "test 1", null, 0);
+        assertSamePage(null, null, "reactive", "SEEDED", 1);
+    }
+
+    @Test
+    @DisplayName("Full-text search returns the page of the jpa search")
+    public void testSearchTasksByText() {
+        List<Long> expected = ids(taskRepository.searchTasksByText(2, -3L, "reactive seeded",
+                PageRequest.of(0, 10)).getContent());
+        List<Long> actual = ids(taskReactiveRepository.searchTasksByText(2, -3L, "reactive seeded", 10, 0)
+                .collectList().block());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("User does not exist")
+    public void testExistsUserById() {
+        StepVerifier.create(taskReactiveRepository.existsUserById(-1L))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    private void assertSamePage(Integer status, Long userId, String title, String description, int pageNum) {
+        List<Long> expected = ids(taskRepository.searchTasks(status, userId, title, description,
+                PageRequest.of(pageNum, 10)).getContent());
+        List<Long> actual = ids(taskReactiveRepository.searchTasks(status, userId, title, description,
+                10, pageNum * 10L).collectList().block());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
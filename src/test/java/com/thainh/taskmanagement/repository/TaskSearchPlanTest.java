@@ -0,0 +1,104 @@
+package com.thainh.taskmanagement.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/***
+ * search queries on a seeded task table must be served by indexes.
+ * scans are read from pg_stat_xact_user_tables, so the statements checked are the ones
+ * hibernate sends, with their bind parameters
+ */
+@SpringBootTest
+@Transactional
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TaskSearchPlanTest {
+
+    private static final int SEEDED_TASKS = 50_000;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public void seed() {
+        // negative ids and user ids never collide with rows of the application
+        jdbcTemplate.update("DELETE FROM task WHERE id < 0");
+        jdbcTemplate.update("""
+                INSERT INTO task (id, title, description, category, status, user_id, created_at, severity)
+                SELECT -g, 'plan test ' || g, 'seeded task ' || g, g % 2, g % 3, -1 - (g % 500),
+                       now() - g * interval '1 minute', 1
+                FROM generate_series(1, ?) g
+                """, SEEDED_TASKS);
+        // statistics and visibility map as they are on a table that has been running for a while
+        jdbcTemplate.execute("VACUUM ANALYZE task");
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        jdbcTemplate.update("DELETE FROM task WHERE id < 0");
+        jdbcTemplate.execute("VACUUM ANALYZE task");
+    }
+
+    @Test
+    @DisplayName("Search by user and status uses an index")
+    public void testSearchByUserAndStatus() {
+        assertIndexScanOnly(() -> taskRepository.searchTasks(1, -8L, null, null, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    @DisplayName("Search by user uses an index")
+    public void testSearchByUser() {
+        assertIndexScanOnly(() -> taskRepository.searchTasks(null, -8L, null, null, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    @DisplayName("Search by status uses an index")
+    public void testSearchByStatus() {
+        assertIndexScanOnly(() -> taskRepository.searchTasks(1, null, null, null, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    @DisplayName("Search by title uses an index")
+    public void testSearchByTitle() {
+        assertIndexScanOnly(() -> taskRepository.searchTasks(null, null, "test 4242", null, PageRequest.of(0, 20)));
+    }
+
+    @Test
+    @DisplayName("Keyset page without filter uses an index")
+    public void testSearchAfterCursor() {
+        assertIndexScanOnly(() -> taskRepository.searchTasksAfter(null, null, null, null, null, null, 21));
+    }
+
+    /***
+     * run the search and check that the task table was only read through indexes
+     * @param search repository calls to check
+     */
+    private void assertIndexScanOnly(Runnable search) {
+        Map<String, Object> before = scans();
+        search.run();
+        Map<String, Object> after = scans();
+        assertEquals(((Number) before.get("seq_scan")).longValue(), ((Number) after.get("seq_scan")).longValue(),
+                "task table was read with a sequential scan");
+        assertTrue(((Number) after.get("idx_scan")).longValue() > ((Number) before.get("idx_scan")).longValue(),
+                "no index was used");
+    }
+
+    private Map<String, Object> scans() {
+        return jdbcTemplate.queryForMap(
+                "SELECT seq_scan, idx_scan FROM pg_stat_xact_user_tables WHERE relname = 'task'");
+    }
+}
@@ -0,0 +1,88 @@
+package com.thainh.taskmanagement.service;
+
+import com.thainh.taskmanagement.entity.IdempotencyKey;
+import com.thainh.taskmanagement.repository.IdempotencyKeyRepository;
+import com.thainh.taskmanagement.utils.IdempotencyStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class IdempotencyStoreTest {
+
+    private static final Duration STALE_AFTER = Duration.ofMillis(200);
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private String key;
+
+    // two instances sharing the table, each with its own LRU
+    private IdempotencyStore first;
+
+    private IdempotencyStore second;
+
+    @BeforeEach
+    public void setUp() {
+        key = UUID.randomUUID().toString();
+        first = new IdempotencyStore(idempotencyKeyRepository, Duration.ofHours(24), STALE_AFTER, 100);
+        second = new IdempotencyStore(idempotencyKeyRepository, Duration.ofHours(24), STALE_AFTER, 100);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        idempotencyKeyRepository.deleteById(key);
+    }
+
+    @Test
+    @DisplayName("Request running longer than stale-after is taken over, it does not touch the retry's key")
+    public void testClaimTakenOver() throws InterruptedException {
+        LocalDateTime firstClaim = first.claim(key, "POST /api/tasks/create", "hash");
+        assertNotNull(firstClaim);
+        assertNull(second.claim(key, "POST /api/tasks/create", "hash"));
+
+        Thread.sleep(STALE_AFTER.toMillis() * 2);
+        LocalDateTime secondClaim = second.claim(key, "POST /api/tasks/create", "hash");
+        assertNotNull(secondClaim);
+
+        // the first request ends after the takeover, failed or completed
+        first.release(key, firstClaim);
+        first.complete(key, firstClaim, "POST /api/tasks/create", "hash", 201, "{\"first\":true}");
+        IdempotencyKey row = idempotencyKeyRepository.findById(key).orElseThrow();
+        assertNull(row.getStatusCode());
+        assertEquals(secondClaim, row.getCreatedAt());
+
+        second.complete(key, secondClaim, "POST /api/tasks/create", "hash", 201, "{\"second\":true}");
+        row = idempotencyKeyRepository.findById(key).orElseThrow();
+        assertEquals(201, row.getStatusCode());
+        assertEquals("{\"second\":true}", row.getResponseBody());
+
+        // the first instance answers retries with the response of the second request, not as still running
+        IdempotencyStore.Entry entry = first.find(key);
+        assertFalse(entry.isRunning());
+        assertEquals("{\"second\":true}", entry.responseBody());
+    }
+
+    @Test
+    @DisplayName("Running request is read again from the table once it is older than stale-after")
+    public void testRunningEntryStale() throws InterruptedException {
+        LocalDateTime firstClaim = first.claim(key, "POST /api/tasks/create", "hash");
+        assertTrue(first.find(key).isRunning());
+
+        Thread.sleep(STALE_AFTER.toMillis() * 2);
+        LocalDateTime secondClaim = second.claim(key, "POST /api/tasks/create", "hash");
+        second.complete(key, secondClaim, "POST /api/tasks/create", "hash", 201, "{}");
+
+        assertNotEquals(firstClaim, secondClaim);
+        assertEquals(201, first.find(key).statusCode());
+    }
+}
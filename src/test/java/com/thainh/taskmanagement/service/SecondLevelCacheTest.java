@@ -0,0 +1,98 @@
+package com.thainh.taskmanagement.service;
+
+import com.thainh.taskmanagement.dto.UsersDto;
+import com.thainh.taskmanagement.entity.Users;
+import com.thainh.taskmanagement.repository.UsersRepository;
+import com.thainh.taskmanagement.utils.Constants;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("l2cache")
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private IUsersService usersService;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    private Users users;
+
+    @BeforeEach
+    public void setUp() {
+        users = createUser();
+        // start with empty regions, the insert above already cached the user
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        usersService.deleteUser(users.getId());
+    }
+
+    @Test
+    @DisplayName("User is loaded from the second-level cache after the first select")
+    public void testUserCached() {
+        // every findById runs in its own session, the second one is served by the users region
+        usersRepository.findById(users.getId()).orElseThrow();
+        usersRepository.findById(users.getId()).orElseThrow();
+
+        CacheRegionStatistics regionStatistics =
+                statistics.getDomainDataRegionStatistics(Constants.USERS_CACHE_REGION);
+        assertEquals(1, regionStatistics.getMissCount());
+        assertEquals(1, regionStatistics.getHitCount());
+        assertEquals(1, statistics.getEntityLoadCount());
+        // same statistics published to actuator
+        assertEquals(1, meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", Constants.USERS_CACHE_REGION, "result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("User list is served from the query cache until a user is written")
+    public void testUserListCached() {
+        int size = usersRepository.findAllByOrderByIdAscCreatedAtAsc().size();
+        assertEquals(size, usersRepository.findAllByOrderByIdAscCreatedAtAsc().size());
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // a write to the users table invalidates the cached result
+        usersService.deleteUser(users.getId());
+        users = createUser();
+        assertEquals(size, usersRepository.findAllByOrderByIdAscCreatedAtAsc().size());
+        assertEquals(2, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    private Users createUser() {
+        UsersDto usersDto = new UsersDto();
+        usersDto.setUsername("l2cache" + System.nanoTime());
+        usersDto.setFullName("L2 Cache Test");
+        usersService.createUser(usersDto);
+        return usersRepository.findByUsername(usersDto.getUsername()).orElseThrow();
+    }
+}
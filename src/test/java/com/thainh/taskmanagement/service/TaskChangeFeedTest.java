@@ -0,0 +1,141 @@
+package com.thainh.taskmanagement.service;
+
+import com.thainh.taskmanagement.dto.BugDto;
+import com.thainh.taskmanagement.dto.SearchDto;
+import com.thainh.taskmanagement.dto.TaskBulkDto;
+import com.thainh.taskmanagement.dto.TaskChangeDto;
+import com.thainh.taskmanagement.dto.UsersDto;
+import com.thainh.taskmanagement.entity.Users;
+import com.thainh.taskmanagement.repository.UsersRepository;
+import com.thainh.taskmanagement.utils.Constants;
+import com.thainh.taskmanagement.utils.TaskChangeFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "task.stream.enabled=true")
+public class TaskChangeFeedTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private ITaskService taskService;
+
+    @Autowired
+    private IUsersService usersService;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private TaskChangeFeed taskChangeFeed;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Users users;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        UsersDto usersDto = new UsersDto();
+        usersDto.setUsername("stream" + System.nanoTime() % 10000);
+        usersDto.setFullName("Stream Test");
+        usersService.createUser(usersDto);
+        users = usersRepository.findByUsername(usersDto.getUsername()).orElseThrow();
+        // the listener connects in the background once the context is started
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!taskChangeFeed.isListening() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(taskChangeFeed.isListening());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SearchDto filter = new SearchDto();
+        filter.setUserId(users.getId());
+        TaskBulkDto taskBulkDto = new TaskBulkDto();
+        taskBulkDto.setFilter(filter);
+        taskService.deleteTasks(taskBulkDto);
+        usersService.deleteUser(users.getId());
+    }
+
+    @Test
+    @DisplayName("Created, updated and deleted task is streamed to subscribers of its user")
+    public void testStreamTaskChanges() {
+        AtomicLong id = new AtomicLong();
+        StepVerifier.create(taskService.streamTaskChanges(users.getId(), null))
+                .then(() -> taskService.createTask(bugDto(0)))
+                .assertNext(change -> {
+                    assertEquals(Constants.TASK_CHANGE.CREATED.name(), change.getType());
+                    assertNotNull(change.getId());
+                    assertEquals(users.getId(), change.getUserId());
+                    assertEquals(0, change.getStatus());
+                    id.set(change.getId());
+                })
+                .then(() -> taskService.updateTask(id.get(), bugDto(1)))
+                .assertNext(change -> {
+                    assertEquals(Constants.TASK_CHANGE.UPDATED.name(), change.getType());
+                    assertEquals(id.get(), change.getId());
+                    assertEquals(1, change.getStatus());
+                    assertEquals(0, change.getPreviousStatus());
+                })
+                .then(() -> taskService.deleteTask(id.get()))
+                .assertNext(change -> assertEquals(Constants.TASK_CHANGE.DELETED.name(), change.getType()))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("Change of another status or a rolled back change is not streamed")
+    public void testStreamTaskChangesFiltered() {
+        SearchDto filter = new SearchDto();
+        filter.setUserId(users.getId());
+        filter.setStatus(0);
+        TaskBulkDto taskBulkDto = new TaskBulkDto();
+        taskBulkDto.setFilter(filter);
+        taskBulkDto.setStatus(2);
+        StepVerifier.create(taskService.streamTaskChanges(users.getId(), 2))
+                .then(() -> {
+                    // status 0 is not streamed to subscribers of status 2
+                    taskService.createTask(bugDto(0));
+                    transactionTemplate.executeWithoutResult(status -> {
+                        taskService.createTask(bugDto(2));
+                        status.setRollbackOnly();
+                    });
+                    taskService.updateTasksStatus(taskBulkDto);
+                })
+                .assertNext(change -> {
+                    assertEquals(Constants.TASK_CHANGE.BULK_STATUS_CHANGED.name(), change.getType());
+                    assertNull(change.getId());
+                    assertEquals(users.getId(), change.getUserId());
+                    assertEquals(2, change.getStatus());
+                    assertEquals(0, change.getPreviousStatus());
+                    assertEquals(1, change.getAffected());
+                })
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    private BugDto bugDto(int status) {
+        BugDto bugDto = new BugDto();
+        bugDto.setTitle("Stream");
+        bugDto.setDescription("description");
+        bugDto.setUserId(users.getId());
+        bugDto.setCategory(0);
+        bugDto.setStatus(status);
+        bugDto.setSeverity(1);
+        bugDto.setStepsToReproduce("steps");
+        return bugDto;
+    }
+}
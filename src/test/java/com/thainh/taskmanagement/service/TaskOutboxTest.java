@@ -0,0 +1,174 @@
+package com.thainh.taskmanagement.service;
+
+import com.thainh.taskmanagement.dto.BugDto;
+import com.thainh.taskmanagement.dto.TaskChangeDto;
+import com.thainh.taskmanagement.dto.UsersDto;
+import com.thainh.taskmanagement.entity.TaskOutbox;
+import com.thainh.taskmanagement.entity.Users;
+import com.thainh.taskmanagement.repository.TaskOutboxRepository;
+import com.thainh.taskmanagement.repository.TaskRepository;
+import com.thainh.taskmanagement.repository.UsersRepository;
+import com.thainh.taskmanagement.utils.Constants;
+import com.thainh.taskmanagement.utils.TaskOutboxDispatcher;
+import com.thainh.taskmanagement.utils.TaskOutboxHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// scheduled dispatch only runs at startup, the tests dispatch themselves
+@SpringBootTest(properties = {
+        "task.outbox.poll-interval=1h",
+        "task.outbox.backoff=1h",
+        "task.outbox.max-backoff=2h",
+        "task.outbox.max-attempts=2"
+})
+public class TaskOutboxTest {
+
+    @TestConfiguration
+    static class HandlerConfig {
+        @Bean
+        RecordingHandler recordingHandler() {
+            return new RecordingHandler();
+        }
+    }
+
+    static class RecordingHandler implements TaskOutboxHandler {
+        final List<TaskChangeDto> changes = new CopyOnWriteArrayList<>();
+        volatile boolean failing;
+
+        @Override
+        public void handle(TaskChangeDto change) {
+            if (failing) {
+                throw new IllegalStateException("handler down");
+            }
+            changes.add(change);
+        }
+    }
+
+    @Autowired
+    private ITaskService taskService;
+
+    @Autowired
+    private IUsersService usersService;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskOutboxRepository taskOutboxRepository;
+
+    @Autowired
+    private TaskOutboxDispatcher taskOutboxDispatcher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private RecordingHandler handler;
+
+    private Users users;
+
+    @BeforeEach
+    public void setUp() {
+        UsersDto usersDto = new UsersDto();
+        usersDto.setUsername("outbox" + System.nanoTime() % 10000);
+        usersDto.setFullName("Outbox Test");
+        usersService.createUser(usersDto);
+        users = usersRepository.findByUsername(usersDto.getUsername()).orElseThrow();
+        taskOutboxRepository.deleteAllInBatch();
+        handler.changes.clear();
+        handler.failing = false;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskRepository.searchTasksAfter(null, users.getId(), null, null, null, null, 100)
+                .forEach(task -> taskRepository.deleteById(task.getId()));
+        usersService.deleteUser(users.getId());
+        taskOutboxRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Committed change is written to the outbox, handed to the handlers and deleted")
+    public void testDispatch() {
+        transactionTemplate.executeWithoutResult(status -> {
+            taskService.createTask(bugDto());
+            status.setRollbackOnly();
+        });
+        assertEquals(0, taskOutboxRepository.count());
+
+        taskService.createTask(bugDto());
+        // the write does not wait for the handlers
+        assertTrue(handler.changes.isEmpty());
+        List<TaskOutbox> rows = taskOutboxRepository.findAll();
+        assertEquals(1, rows.size());
+        assertEquals(Constants.TASK_CHANGE.CREATED.name(), rows.get(0).getEventType());
+
+        assertEquals(1, taskOutboxDispatcher.dispatchBatch());
+        assertEquals(1, handler.changes.size());
+        assertEquals(rows.get(0).getTaskId(), handler.changes.get(0).getId());
+        assertEquals(users.getId(), handler.changes.get(0).getUserId());
+        assertEquals(0, taskOutboxRepository.count());
+    }
+
+    @Test
+    @DisplayName("Failed change is retried after its backoff and kept after the last attempt")
+    public void testDispatchFailed() {
+        taskService.createTask(bugDto());
+        handler.failing = true;
+        assertEquals(0, taskOutboxDispatcher.dispatchBatch());
+        TaskOutbox row = taskOutboxRepository.findAll().get(0);
+        assertEquals(1, row.getAttempts());
+        assertTrue(row.getAvailableAt().isAfter(LocalDateTime.now().plusMinutes(59)));
+        assertTrue(row.getLastError().contains("handler down"));
+
+        // not due before its backoff
+        handler.failing = false;
+        assertEquals(0, taskOutboxDispatcher.dispatchBatch());
+        assertTrue(handler.changes.isEmpty());
+
+        // second and last attempt fails, the row is left for inspection
+        handler.failing = true;
+        makeDue();
+        assertEquals(0, taskOutboxDispatcher.dispatchBatch());
+        assertEquals(2, taskOutboxRepository.findAll().get(0).getAttempts());
+        handler.failing = false;
+        makeDue();
+        assertEquals(0, taskOutboxDispatcher.dispatchBatch());
+        assertTrue(handler.changes.isEmpty());
+        assertEquals(1, taskOutboxRepository.count());
+    }
+
+    private void makeDue() {
+        TaskOutbox row = taskOutboxRepository.findAll().get(0);
+        row.setAvailableAt(LocalDateTime.now());
+        taskOutboxRepository.save(row);
+    }
+
+    private BugDto bugDto() {
+        BugDto bugDto = new BugDto();
+        bugDto.setTitle("Outbox");
+        bugDto.setDescription("description");
+        bugDto.setUserId(users.getId());
+        bugDto.setCategory(0);
+        bugDto.setStatus(0);
+        bugDto.setSeverity(1);
+        bugDto.setStepsToReproduce("steps");
+        return bugDto;
+    }
+}
@@ -0,0 +1,85 @@
+package com.thainh.taskmanagement.service;
+
+import com.thainh.taskmanagement.dto.SearchDto;
+import com.thainh.taskmanagement.dto.TaskListDto;
+import com.thainh.taskmanagement.utils.TaskSearchCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskSearchCacheTest {
+
+    private TaskSearchCache taskSearchCache;
+
+    private AtomicInteger searches;
+
+    @BeforeEach
+    public void setUp() {
+        taskSearchCache = new TaskSearchCache(true, 100, Duration.ofMinutes(1));
+        searches = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Task written evicts searches of its user and status and searches without those filters")
+    public void testEvictMatchingSearches() {
+        SearchDto sameUserAndStatus = search(1L, 0);
+        SearchDto sameUser = search(1L, null);
+        SearchDto noFilter = search(null, null);
+        SearchDto otherUser = search(2L, 0);
+        SearchDto otherStatus = search(1L, 2);
+        List<SearchDto> all = List.of(sameUserAndStatus, sameUser, noFilter, otherUser, otherStatus);
+        all.forEach(this::get);
+        all.forEach(this::get);
+        assertEquals(5, searches.get());
+
+        taskSearchCache.evict(1L, 0);
+        all.forEach(this::get);
+        assertEquals(8, searches.get());
+    }
+
+    @Test
+    @DisplayName("Search running across an eviction is not cached")
+    public void testEvictDuringSearch() {
+        SearchDto searchDto = search(1L, 0);
+        taskSearchCache.get(searchDto, () -> {
+            searches.incrementAndGet();
+            taskSearchCache.evict(1L, 0);
+            return new TaskListDto(List.of(), 0L, 0);
+        });
+        get(searchDto);
+        assertEquals(2, searches.get());
+        get(searchDto);
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    @DisplayName("Disabled cache runs every search")
+    public void testDisabled() {
+        taskSearchCache = new TaskSearchCache(false, 100, Duration.ofMinutes(1));
+        SearchDto searchDto = search(1L, 0);
+        get(searchDto);
+        get(searchDto);
+        assertEquals(2, searches.get());
+    }
+
+    private TaskListDto get(SearchDto searchDto) {
+        return taskSearchCache.get(searchDto, () -> {
+            searches.incrementAndGet();
+            return new TaskListDto(List.of(), 0L, 0);
+        });
+    }
+
+    private SearchDto search(Long userId, Integer status) {
+        SearchDto searchDto = new SearchDto();
+        searchDto.setUserId(userId);
+        searchDto.setStatus(status);
+        searchDto.setPageSize(10);
+        return searchDto;
+    }
+}
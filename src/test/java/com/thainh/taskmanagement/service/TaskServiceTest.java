@@ -2,20 +2,26 @@ package com.thainh.taskmanagement.service;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.thainh.taskmanagement.dto.BugDto;
 import com.thainh.taskmanagement.dto.FeatureDto;
+import com.thainh.taskmanagement.dto.TaskBatchItemDto;
+import com.thainh.taskmanagement.dto.SearchDto;
+import com.thainh.taskmanagement.dto.TaskBatchResultDto;
+import com.thainh.taskmanagement.dto.TaskBulkDto;
+import com.thainh.taskmanagement.dto.TaskChangeDto;
+import com.thainh.taskmanagement.dto.TaskDto;
 import com.thainh.taskmanagement.entity.Bug;
 import com.thainh.taskmanagement.entity.Feature;
 import com.thainh.taskmanagement.entity.Task;
-import com.thainh.taskmanagement.entity.Users;
 import com.thainh.taskmanagement.exception.ResourceNotFoundException;
 import com.thainh.taskmanagement.exception.TaskRequestException;
-import com.thainh.taskmanagement.repository.BugRepository;
-import com.thainh.taskmanagement.repository.FeatureRepository;
 import com.thainh.taskmanagement.repository.TaskRepository;
 import com.thainh.taskmanagement.repository.UsersRepository;
 import com.thainh.taskmanagement.service.impl.TaskServiceImpl;
+import com.thainh.taskmanagement.utils.Constants;
+import com.thainh.taskmanagement.utils.TaskChangeFeed;
+import com.thainh.taskmanagement.utils.TaskOutboxDispatcher;
+import com.thainh.taskmanagement.utils.TaskSearchCache;
 import jakarta.validation.Validator;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -31,12 +37,14 @@ import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -55,27 +63,26 @@ public class TaskServiceTest {
     private UsersRepository usersRepository;
 
     @Mock
-    private BugRepository bugRepository;
+    private TaskSearchCache taskSearchCache;
 
     @Mock
-    private FeatureRepository featureRepository;
+    private Validator validator;
 
     @Mock
-    private Validator validator;
+    private TaskChangeFeed taskChangeFeed;
+
+    @Mock
+    private TaskOutboxDispatcher taskOutboxDispatcher;
 
     @Test
     @DisplayName("Get all tasks successfully")
     public void testFetchAllTasks() {
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(0);
+        task.setSeverity(0);
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(0);
 
         BugDto bugDto = new BugDto();
         bugDto.setId(1L);
@@ -87,33 +94,55 @@ public class TaskServiceTest {
         bugDto.setCategory(0);
         bugDto.setCategoryId(1L);
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(bugDto);
-
         Page<Task> tasks = new PageImpl<>(List.of(task), PageRequest.of(0, 10), 1L);
         when(taskRepository.findAllByOrderByCreatedAtDesc(any())).thenReturn(tasks);
-        when(bugRepository.findById(1L)).thenReturn(Optional.of(bug));
-        when(mapper.valueToTree(any())).thenReturn(json);
 
         var res = taskService.fetchAllTasks();
         assertNotNull(res);
-        assertEquals(0,res.getContent().get(0).get("category").asInt(),
+        assertEquals(0,res.getContent().get(0).getCategory(),
                 "First task category should be 0");
+        assertInstanceOf(BugDto.class, res.getContent().get(0));
+        verifyNoInteractions(mapper);
+    }
+
+    @Test
+    @DisplayName("Get all tasks successfully, bug and feature details come with the page query")
+    public void testFetchAllTasks2() {
+        List<Task> content = new ArrayList<>();
+        for (long i = 1; i <= 100; i++) {
+            Task task;
+            if (i % 2 == 0) {
+                task = new Bug();
+            } else {
+                Feature feature = new Feature();
+                feature.setDeadline(LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
+                task = feature;
+            }
+            task.setId(i);
+            task.setStatus(0);
+            task.setUserId(1L);
+            task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
+            content.add(task);
+        }
+
+        Page<Task> tasks = new PageImpl<>(content, PageRequest.of(0, 100), 100L);
+        when(taskRepository.findAllByOrderByCreatedAtDesc(any())).thenReturn(tasks);
+
+        var res = taskService.fetchAllTasks();
+        assertEquals(100, res.getContent().size());
+        verify(taskRepository, times(1)).findAllByOrderByCreatedAtDesc(any());
+        verifyNoMoreInteractions(taskRepository);
     }
 
     @Test
     @DisplayName("Get all tasks failed: internal server error")
     public void testFetchAllTasks1() {
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(0);
+        task.setSeverity(0);
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(0);
 
         BugDto bugDto = new BugDto();
         bugDto.setId(1L);
@@ -144,22 +173,14 @@ public class TaskServiceTest {
         bugDto.setCategoryId(1L);
         bugDto.setTitle("title");
 
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(bugDto);
-
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
-        when(mapper.convertValue(json, BugDto.class)).thenReturn(bugDto);
+        when(usersRepository.existsById(1L)).thenReturn(true);
         ArgumentCaptor<Task> taskCaptor = ArgumentCaptor.forClass(Task.class);
-        ArgumentCaptor<Bug> bugCaptor = ArgumentCaptor.forClass(Bug.class);
-        taskService.createTask(json);
+        taskService.createTask(bugDto);
         verify(taskRepository, times(1)).save(taskCaptor.capture());
-        verify(bugRepository, times(1)).save(bugCaptor.capture());
-        assertEquals("title", taskCaptor.getValue().getTitle());
-        assertEquals(1, bugCaptor.getValue().getSeverity());
+        Bug bug = assertInstanceOf(Bug.class, taskCaptor.getValue());
+        assertEquals("title", bug.getTitle());
+        assertEquals(1, bug.getSeverity());
+        verify(taskSearchCache, times(1)).evict(1L, 0);
     }
 
     @Test
@@ -177,15 +198,8 @@ public class TaskServiceTest {
         bugDto.setCategoryId(1L);
         bugDto.setTitle("title");
 
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(bugDto);
-
-        when(usersRepository.findById(1L)).thenReturn(Optional.empty());
-        assertThrows(RuntimeException.class, () -> taskService.createTask(json));
+        when(usersRepository.existsById(1L)).thenReturn(false);
+        assertThrows(RuntimeException.class, () -> taskService.createTask(bugDto));
     }
 
     @Test
@@ -201,27 +215,18 @@ public class TaskServiceTest {
         featureDto.setCategoryId(1L);
         featureDto.setTitle("title");
 
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(featureDto);
-
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
-        when(mapper.convertValue(json, FeatureDto.class)).thenReturn(featureDto);
+        when(usersRepository.existsById(1L)).thenReturn(true);
         LocalDate mockDate = LocalDate.parse("2025/05/20", DateTimeFormatter.ofPattern("yyyy/MM/dd"));
         LocalDate mockDeadline = LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd"));
         try (MockedStatic<LocalDate> mockedStatic = mockStatic(LocalDate.class)) {
             mockedStatic.when(LocalDate::now).thenReturn(mockDate);
             mockedStatic.when(() -> LocalDate.parse(anyString(), any())).thenReturn(mockDeadline);
             ArgumentCaptor<Task> taskCaptor = ArgumentCaptor.forClass(Task.class);
-            ArgumentCaptor<Feature> featureCaptor = ArgumentCaptor.forClass(Feature.class);
-            taskService.createTask(json);
+            taskService.createTask(featureDto);
             verify(taskRepository, times(1)).save(taskCaptor.capture());
-            verify(featureRepository, times(1)).save(featureCaptor.capture());
-            assertEquals("title", taskCaptor.getValue().getTitle());
-            assertEquals("new feature", featureCaptor.getValue().getBusinessValue());
+            Feature feature = assertInstanceOf(Feature.class, taskCaptor.getValue());
+            assertEquals("title", feature.getTitle());
+            assertEquals("new feature", feature.getBusinessValue());
         }
 
     }
@@ -239,38 +244,84 @@ public class TaskServiceTest {
         featureDto.setCategoryId(1L);
         featureDto.setTitle("title");
 
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(featureDto);
-
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
-        when(mapper.convertValue(json, FeatureDto.class)).thenReturn(featureDto);
         LocalDate mockDate = LocalDate.parse("2025/05/25", DateTimeFormatter.ofPattern("yyyy/MM/dd"));
         LocalDate mockDeadline = LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd"));
         try (MockedStatic<LocalDate> mockedStatic = mockStatic(LocalDate.class)) {
             mockedStatic.when(LocalDate::now).thenReturn(mockDate);
             mockedStatic.when(() -> LocalDate.parse(anyString(), any())).thenReturn(mockDeadline);
-            assertThrows(RuntimeException.class, () -> taskService.createTask(json));
+            assertThrows(RuntimeException.class, () -> taskService.createTask(featureDto));
+            verifyNoInteractions(usersRepository);
+        }
+
+    }
+
+    @Test
+    @DisplayName("Create tasks in batch, invalid tasks are reported and the others saved together")
+    public void testCreateTasks() {
+        List<TaskDto> taskDtos = new ArrayList<>();
+        for (long userId : new long[]{1L, 9L, 1L}) {
+            BugDto bugDto = new BugDto();
+            bugDto.setUserId(userId);
+            bugDto.setSeverity(1);
+            bugDto.setStatus(0);
+            bugDto.setCategory(0);
+            bugDto.setTitle("title " + taskDtos.size());
+            taskDtos.add(bugDto);
         }
+        // category says feature, body is a bug
+        BugDto invalidCategory = new BugDto();
+        invalidCategory.setUserId(1L);
+        invalidCategory.setCategory(1);
+        taskDtos.add(invalidCategory);
+
+        when(usersRepository.existsById(1L)).thenReturn(true);
+        when(usersRepository.existsById(9L)).thenReturn(false);
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            for (int i = 0; i < tasks.size(); i++) {
+                tasks.get(i).setId(100L + i);
+            }
+            return tasks;
+        });
+
+        TaskBatchResultDto result = taskService.createTasks(taskDtos);
+        assertEquals(4, result.getTotalTask());
+        assertEquals(2, result.getCreated());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(Constants.BATCH_ITEM_CREATED, Constants.BATCH_ITEM_FAILED,
+                        Constants.BATCH_ITEM_CREATED, Constants.BATCH_ITEM_FAILED),
+                result.getResults().stream().map(TaskBatchItemDto::getStatus).toList());
+        assertEquals(100L, result.getResults().get(0).getId());
+        assertEquals(101L, result.getResults().get(2).getId());
+        assertEquals("Users not found with field id : '9'", result.getResults().get(1).getErrorMessage());
+        assertEquals("Invalid category: [1]", result.getResults().get(3).getErrorMessage());
+        // one lookup per user, one saveAll for the whole batch
+        verify(usersRepository, times(1)).existsById(1L);
+        verify(taskRepository, times(1)).saveAll(anyList());
+        verify(taskRepository, never()).save(any());
+    }
 
+    @Test
+    @DisplayName("Create tasks in batch failed, no task or too many tasks")
+    public void testCreateTasks1() {
+        assertThrows(TaskRequestException.class, () -> taskService.createTasks(List.of()));
+        List<TaskDto> taskDtos = new ArrayList<>();
+        for (int i = 0; i <= Constants.TASK_BATCH_MAX_SIZE; i++) {
+            taskDtos.add(new BugDto());
+        }
+        assertThrows(TaskRequestException.class, () -> taskService.createTasks(taskDtos));
+        verifyNoInteractions(taskRepository, usersRepository);
     }
 
     @Test
     @DisplayName("Update task successfully, update severity of bug")
     public void testUpdateTask1() {
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(0);
+        task.setSeverity(0);
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(0);
 
         BugDto bugDto = new BugDto();
         bugDto.setId(1L);
@@ -283,40 +334,32 @@ public class TaskServiceTest {
         bugDto.setCategory(0);
         bugDto.setCategoryId(1L);
 
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(bugDto);
-
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
-        when(mapper.convertValue(json, BugDto.class)).thenReturn(bugDto);
+        when(usersRepository.existsById(1L)).thenReturn(true);
         when(validator.validate(any())).thenReturn(Set.of());
 
-        taskService.updateTask(1L, json);
-        ArgumentCaptor<Bug> captorBug = ArgumentCaptor.forClass(Bug.class);
-        verify(bugRepository, times(1)).save(captorBug.capture());
-        assertEquals(1, captorBug.getValue().getSeverity(), "update severity of bug");
-        ArgumentCaptor<Task> captorTask = ArgumentCaptor.forClass(Task.class);
-        verify(taskRepository, times(1)).save(captorTask.capture());
-        assertEquals(1L, captorTask.getValue().getCategoryId(), "update same bug");
+        taskService.updateTask(1L, bugDto);
+        // changes are copied onto the loaded bug, written when the transaction is flushed
+        assertEquals(1, task.getSeverity(), "update severity of bug");
+        assertEquals("Steps to reproduce", task.getStepsToReproduce(), "update steps of bug");
+        verify(taskRepository, never()).save(any());
+        verify(taskRepository, never()).switchCategory(any(Bug.class));
+        verify(taskRepository, never()).switchCategory(any(Feature.class));
+        List<TaskChangeDto> changes = List.of(
+                new TaskChangeDto(Constants.TASK_CHANGE.UPDATED.name(), 1L, 1L, 0, 1L, 0, null));
+        verify(taskChangeFeed, times(1)).publish(changes);
+        verify(taskOutboxDispatcher, times(1)).append(changes);
     }
 
     @Test
     @DisplayName("Update task successfully, update category of task")
     public void testUpdateTask2() {
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(0);
+        task.setSeverity(0);
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(0);
 
         BugDto bugDto = new BugDto();
         bugDto.setId(1L);
@@ -340,17 +383,8 @@ public class TaskServiceTest {
         featureDto.setCategory(1);
         featureDto.setCategoryId(1L);
 
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(featureDto);
-
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
-        when(bugRepository.findById(1L)).thenReturn(Optional.of(bug));
-        when(mapper.convertValue(json, FeatureDto.class)).thenReturn(featureDto);
+        when(usersRepository.existsById(1L)).thenReturn(true);
         when(validator.validate(any())).thenReturn(Set.of());
 
         LocalDate mockDate = LocalDate.parse("2025/05/20", DateTimeFormatter.ofPattern("yyyy/MM/dd"));
@@ -358,15 +392,16 @@ public class TaskServiceTest {
         try (MockedStatic<LocalDate> mockedStatic = mockStatic(LocalDate.class)) {
             mockedStatic.when(LocalDate::now).thenReturn(mockDate);
             mockedStatic.when(() -> LocalDate.parse(anyString(), any())).thenReturn(mockDeadline);
-            taskService.updateTask(1L, json);
-
-            verify(bugRepository, times(1)).delete(any());
-            ArgumentCaptor<Feature> captorFeature = ArgumentCaptor.forClass(Feature.class);
-            verify(featureRepository, times(1)).save(captorFeature.capture());
-            assertEquals("new feature", captorFeature.getValue().getBusinessValue(), "create new feature");
-            ArgumentCaptor<Task> captorTask = ArgumentCaptor.forClass(Task.class);
-            verify(taskRepository, times(1)).save(captorTask.capture());
-            assertEquals(1, captorTask.getValue().getCategory(), "update category");
+            when(taskRepository.switchCategory(any(Feature.class))).thenReturn(1);
+            taskService.updateTask(1L, featureDto);
+
+            ArgumentCaptor<Feature> captorTask = ArgumentCaptor.forClass(Feature.class);
+            verify(taskRepository, times(1)).switchCategory(captorTask.capture());
+            verify(taskRepository, never()).save(any());
+            Feature captorFeature = captorTask.getValue();
+            assertEquals("new feature", captorFeature.getBusinessValue(), "create new feature");
+            assertEquals(1, captorFeature.getCategory(), "update category");
+            assertEquals(1L, captorFeature.getId(), "keep task id");
         }
 
     }
@@ -374,16 +409,12 @@ public class TaskServiceTest {
     @Test
     @DisplayName("Update task failed, task not found")
     public void testUpdateTask3() {
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(0);
+        task.setSeverity(0);
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(0);
 
         BugDto bugDto = new BugDto();
         bugDto.setId(1L);
@@ -407,30 +438,19 @@ public class TaskServiceTest {
         featureDto.setCategory(1);
         featureDto.setCategoryId(1L);
 
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(featureDto);
-
         when(taskRepository.findById(1L)).thenReturn(Optional.empty());
-        assertThrows(ResourceNotFoundException.class, () -> taskService.updateTask(1L, json));
+        assertThrows(ResourceNotFoundException.class, () -> taskService.updateTask(1L, featureDto));
     }
 
     @Test
     @DisplayName("Update task failed, user not found")
     public void testUpdateTask4() {
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(0);
+        task.setSeverity(0);
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(0);
 
         BugDto bugDto = new BugDto();
         bugDto.setId(1L);
@@ -447,38 +467,27 @@ public class TaskServiceTest {
         featureDto.setId(1L);
         featureDto.setUserId(1L);
         featureDto.setBusinessValue("new feature");
-        featureDto.setDeadline("2025/05/24");
+        featureDto.setDeadline("2099/05/24");
         featureDto.setTitle("Title");
         featureDto.setDescription("Description");
         featureDto.setStatus(0);
         featureDto.setCategory(1);
         featureDto.setCategoryId(1L);
 
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(featureDto);
-
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(usersRepository.findById(1L)).thenReturn(Optional.empty());
-        assertThrows(ResourceNotFoundException.class, () -> taskService.updateTask(1L, json));
+        when(usersRepository.existsById(1L)).thenReturn(false);
+        assertThrows(ResourceNotFoundException.class, () -> taskService.updateTask(1L, featureDto));
     }
 
     @Test
     @DisplayName("Update task failed, invalid category")
     public void testUpdateTask5() {
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(0);
+        task.setSeverity(0);
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(0);
 
         BugDto bugDto = new BugDto();
         bugDto.setId(1L);
@@ -502,32 +511,21 @@ public class TaskServiceTest {
         featureDto.setCategory(2);
         featureDto.setCategoryId(1L);
 
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(featureDto);
-
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
-        assertThrows(TaskRequestException.class, () -> taskService.updateTask(1L, json));
+        assertThrows(TaskRequestException.class, () -> taskService.updateTask(1L, featureDto));
+        verifyNoInteractions(usersRepository);
 
     }
 
     @Test
     @DisplayName("Update task failed, invalid feature deadline")
     public void testUpdateTask6() {
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(0);
+        task.setSeverity(0);
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(0);
 
         BugDto bugDto = new BugDto();
         bugDto.setId(1L);
@@ -551,17 +549,7 @@ public class TaskServiceTest {
         featureDto.setCategory(1);
         featureDto.setCategoryId(1L);
 
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(featureDto);
-
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
-        when(bugRepository.findById(1L)).thenReturn(Optional.of(bug));
-        when(mapper.convertValue(json, FeatureDto.class)).thenReturn(featureDto);
         when(validator.validate(any())).thenReturn(Set.of());
 
         LocalDate mockDate = LocalDate.parse("2025/05/25", DateTimeFormatter.ofPattern("yyyy/MM/dd"));
@@ -569,24 +557,21 @@ public class TaskServiceTest {
         try (MockedStatic<LocalDate> mockedStatic = mockStatic(LocalDate.class)) {
             mockedStatic.when(LocalDate::now).thenReturn(mockDate);
             mockedStatic.when(() -> LocalDate.parse(anyString(), any())).thenReturn(mockDeadline);
-            assertThrows(TaskRequestException.class, () -> taskService.updateTask(1L, json));
+            assertThrows(TaskRequestException.class, () -> taskService.updateTask(1L, featureDto));
+            verifyNoInteractions(usersRepository);
         }
     }
 
     @Test
     @DisplayName("Update task successfully, update feature to bug")
     public void testUpdateTask7() {
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(1);
+        task.setBusinessValue("new feature");
+        task.setDeadline(LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("new feature");
-        feature.setDeadline(LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
 
         BugDto bugDto = new BugDto();
         bugDto.setId(1L);
@@ -610,96 +595,148 @@ public class TaskServiceTest {
         featureDto.setCategory(1);
         featureDto.setCategoryId(1L);
 
-        Users users = new Users();
-        users.setId(1L);
-        users.setUsername("thainh");
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode json = objectMapper.valueToTree(bugDto);
-
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(usersRepository.findById(1L)).thenReturn(Optional.of(users));
-        when(featureRepository.findById(1L)).thenReturn(Optional.of(feature));
-        when(mapper.convertValue(json, BugDto.class)).thenReturn(bugDto);
+        when(usersRepository.existsById(1L)).thenReturn(true);
         when(validator.validate(any())).thenReturn(Set.of());
 
-        ArgumentCaptor<Task> taskCaptor = ArgumentCaptor.forClass(Task.class);
-        ArgumentCaptor<Bug> bugCaptor = ArgumentCaptor.forClass(Bug.class);
-        taskService.updateTask(1L, json);
+        when(taskRepository.switchCategory(any(Bug.class))).thenReturn(1);
+        ArgumentCaptor<Bug> taskCaptor = ArgumentCaptor.forClass(Bug.class);
+        taskService.updateTask(1L, bugDto);
 
-        verify(taskRepository, times(1)).save(taskCaptor.capture());
-        verify(bugRepository, times(1)).save(bugCaptor.capture());
+        verify(taskRepository, times(1)).switchCategory(taskCaptor.capture());
+        verify(taskRepository, never()).save(any());
 
         assertEquals(1L, taskCaptor.getValue().getId());
-        assertEquals(1, bugCaptor.getValue().getSeverity());
+        assertEquals(0, taskCaptor.getValue().getCategory());
+        assertEquals(1, taskCaptor.getValue().getSeverity());
     }
 
     @Test
     @DisplayName("Delete task successfully, delete bug")
     public void testDeleteTask1() {
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(0);
+        task.setSeverity(1);
+        task.setStepsToReproduce("Steps to reproduce");
+        task.setExpectedResult("Expected result");
+        task.setActualResult("Actual result");
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(1);
-        bug.setStepsToReproduce("Steps to reproduce");
-        bug.setExpectedResult("Expected result");
-        bug.setActualResult("Actual result");
 
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(bugRepository.findById(1L)).thenReturn(Optional.of(bug));
         taskService.deleteTask(1L);
         verify(taskRepository, times(1)).delete(task);
-        verify(bugRepository, times(1)).delete(bug);
     }
 
     @Test
     @DisplayName("Delete task successfully, delete feature")
     public void testDeleteTask2() {
-        Task task = new Task();
+        Feature task = new Feature();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(1);
+        task.setBusinessValue("new feature");
+        task.setDeadline(LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Feature feature = new Feature();
-        feature.setId(1L);
-        feature.setBusinessValue("new feature");
-        feature.setDeadline(LocalDate.parse("2025/05/24", DateTimeFormatter.ofPattern("yyyy/MM/dd")));
 
         when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-        when(featureRepository.findById(1L)).thenReturn(Optional.of(feature));
         taskService.deleteTask(1L);
         verify(taskRepository, times(1)).delete(task);
-        verify(featureRepository, times(1)).delete(feature);
     }
 
     @Test
     @DisplayName("Delete task failed, task not found")
     public void testDeleteTask3() {
-        Task task = new Task();
+        Bug task = new Bug();
         task.setId(1L);
         task.setStatus(0);
         task.setUserId(1L);
-        task.setCategoryId(1L);
-        task.setCategory(0);
+        task.setSeverity(1);
+        task.setStepsToReproduce("Steps to reproduce");
+        task.setExpectedResult("Expected result");
+        task.setActualResult("Actual result");
         task.setCreatedAt(LocalDate.parse("2025/05/23", DateTimeFormatter.ofPattern("yyyy/MM/dd")).atStartOfDay());
-        Bug bug = new Bug();
-        bug.setId(1L);
-        bug.setSeverity(1);
-        bug.setStepsToReproduce("Steps to reproduce");
-        bug.setExpectedResult("Expected result");
-        bug.setActualResult("Actual result");
 
         when(taskRepository.findById(1L)).thenReturn(Optional.empty());
         assertThrows(ResourceNotFoundException.class, () -> taskService.deleteTask(1L));
         verify(taskRepository, never()).delete(task);
-        verify(bugRepository, never()).delete(bug);
+        verifyNoInteractions(taskChangeFeed);
+    }
+
+    @Test
+    @DisplayName("Delete tasks by ids in one statement")
+    public void testDeleteTasks1() {
+        TaskBulkDto taskBulkDto = new TaskBulkDto();
+        taskBulkDto.setIds(List.of(1L, 2L, 3L));
+
+        when(taskRepository.deleteByIds(any())).thenReturn(2);
+        assertEquals(2, taskService.deleteTasks(taskBulkDto).getAffected());
+        verify(taskRepository, times(1)).deleteByIds(new Long[]{1L, 2L, 3L});
+        verify(taskRepository, never()).findById(any());
+        verify(taskSearchCache, times(1)).evictAll();
+        // users and statuses of the ids are not known, the change concerns every subscriber
+        verify(taskChangeFeed, times(1)).publish(List.of(
+                new TaskChangeDto(Constants.TASK_CHANGE.BULK_DELETED.name(), null, null, null, null, null, 2)));
+    }
+
+    @Test
+    @DisplayName("Delete tasks failed, both ids and filter, or an empty filter")
+    public void testDeleteTasks2() {
+        TaskBulkDto taskBulkDto = new TaskBulkDto();
+        taskBulkDto.setIds(List.of(1L));
+        taskBulkDto.setFilter(new SearchDto());
+        assertThrows(TaskRequestException.class, () -> taskService.deleteTasks(taskBulkDto));
+
+        taskBulkDto.setIds(null);
+        assertThrows(TaskRequestException.class, () -> taskService.deleteTasks(taskBulkDto));
+
+        taskBulkDto.setFilter(null);
+        assertThrows(TaskRequestException.class, () -> taskService.deleteTasks(taskBulkDto));
+        verifyNoInteractions(taskRepository, taskSearchCache);
+    }
+
+    @Test
+    @DisplayName("Change status of tasks matching a filter in one statement")
+    public void testUpdateTasksStatus1() {
+        SearchDto filter = new SearchDto();
+        filter.setUserId(1L);
+        filter.setStatus(1);
+        TaskBulkDto taskBulkDto = new TaskBulkDto();
+        taskBulkDto.setFilter(filter);
+        taskBulkDto.setStatus(2);
+
+        when(taskRepository.updateStatus(1, 1L, null, null, 2)).thenReturn(42);
+        assertEquals(42, taskService.updateTasksStatus(taskBulkDto).getAffected());
+        verify(taskSearchCache, times(1)).evictAll();
+        verify(taskChangeFeed, times(1)).publish(List.of(
+                new TaskChangeDto(Constants.TASK_CHANGE.BULK_STATUS_CHANGED.name(), null, 1L, 2, null, 1, 42)));
+    }
+
+    @Test
+    @DisplayName("Change status of tasks failed, status is required")
+    public void testUpdateTasksStatus2() {
+        TaskBulkDto taskBulkDto = new TaskBulkDto();
+        taskBulkDto.setIds(List.of(1L));
+        assertThrows(TaskRequestException.class, () -> taskService.updateTasksStatus(taskBulkDto));
+        verifyNoInteractions(taskRepository, taskSearchCache);
+    }
+
+    @Test
+    @DisplayName("Stream task changes failed, user not found")
+    public void testStreamTaskChanges() {
+        when(taskChangeFeed.isEnabled()).thenReturn(true);
+        when(usersRepository.existsById(1L)).thenReturn(false);
+        assertThrows(ResourceNotFoundException.class, () -> taskService.streamTaskChanges(1L, null));
+        verify(taskChangeFeed, never()).subscribe(any(), any());
+    }
+
+    @Test
+    @DisplayName("Stream task changes failed, stream is off")
+    public void testStreamTaskChanges1() {
+        when(taskChangeFeed.isEnabled()).thenReturn(false);
+        assertThrows(ResourceNotFoundException.class, () -> taskService.streamTaskChanges(null, null));
+        verify(taskChangeFeed, never()).subscribe(any(), any());
+        verifyNoInteractions(usersRepository);
     }
 }
@@ -0,0 +1,184 @@
+package com.thainh.taskmanagement.service;
+
+import com.thainh.taskmanagement.dto.BugDto;
+import com.thainh.taskmanagement.dto.FeatureDto;
+import com.thainh.taskmanagement.dto.TaskDto;
+import com.thainh.taskmanagement.dto.UsersDto;
+import com.thainh.taskmanagement.entity.Bug;
+import com.thainh.taskmanagement.entity.Feature;
+import com.thainh.taskmanagement.entity.Task;
+import com.thainh.taskmanagement.entity.Users;
+import com.thainh.taskmanagement.exception.TaskVersionException;
+import com.thainh.taskmanagement.repository.TaskRepository;
+import com.thainh.taskmanagement.repository.UsersRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class TaskUpdateRoundTripTest {
+
+    @Autowired
+    private ITaskService taskService;
+
+    @Autowired
+    private IUsersService usersService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    private Users users;
+
+    private Long taskId;
+
+    @BeforeEach
+    public void setUp() {
+        UsersDto usersDto = new UsersDto();
+        usersDto.setUsername("update" + System.nanoTime() % 10000);
+        usersDto.setFullName("Update Test");
+        usersService.createUser(usersDto);
+        users = usersRepository.findByUsername(usersDto.getUsername()).orElseThrow();
+
+        taskService.createTask(bugDto("Round trip"));
+        taskId = taskRepository.searchTasksAfter(null, users.getId(), null, null, null, null, 1).get(0).getId();
+        // user existence is cached by the first write, every update below reads the task only.
+        // the task is read from the database, not from the second-level cache
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskRepository.deleteById(taskId);
+        usersService.deleteUser(users.getId());
+    }
+
+    @Test
+    @DisplayName("Update a task, only the changed columns are written in one statement")
+    public void testUpdateChangedColumns() {
+        BugDto bugDto = bugDto("Round trip");
+        bugDto.setSeverity(2);
+        taskService.updateTask(taskId, bugDto);
+
+        // select + update, the change feed is off
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        Bug bug = (Bug) taskRepository.findById(taskId).orElseThrow();
+        assertEquals(2, bug.getSeverity());
+        assertEquals("Round trip", bug.getTitle());
+        assertNotNull(bug.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("Update a task with the same values, nothing is written")
+    public void testUpdateUnchanged() {
+        taskService.updateTask(taskId, bugDto("Round trip"));
+
+        // select only, the change feed is off
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    @DisplayName("Switch a bug to a feature, the task is rewritten in one statement")
+    public void testUpdateSwitchCategory() {
+        taskService.updateTask(taskId, featureDto());
+
+        // select + update, the change feed is off
+        assertEquals(2, statistics.getPrepareStatementCount());
+        Task task = taskRepository.findById(taskId).orElseThrow();
+        Feature feature = assertInstanceOf(Feature.class, task);
+        assertEquals("Now a feature", feature.getTitle());
+        assertEquals("value", feature.getBusinessValue());
+        assertEquals(LocalDate.now().plusDays(7), feature.getDeadline());
+        assertEquals("Admin", feature.getUpdatedBy());
+        assertNotNull(feature.getUpdatedAt());
+        assertNotNull(feature.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Switch the category of a task back and forth, its legacy feature version is kept")
+    public void testUpdateSwitchCategoryKeepsFeatureVersion() {
+        jdbcTemplate.update("UPDATE task SET feature_version = 7 WHERE id = ?", taskId);
+
+        taskService.updateTask(taskId, featureDto());
+        assertEquals(7, featureVersion());
+        taskService.updateTask(taskId, bugDto("Bug again"));
+        assertEquals(7, featureVersion());
+    }
+
+    @Test
+    @DisplayName("Update a task at an old version, the task is not changed")
+    public void testUpdateVersion() {
+        long version = taskService.fetchTaskVersion(taskId);
+        BugDto bugDto = bugDto("Version");
+        bugDto.setVersion(version);
+        taskService.updateTask(taskId, bugDto);
+        assertEquals(version + 1, taskService.fetchTaskVersion(taskId));
+
+        // same version again, the task has moved on
+        bugDto.setTitle("Lost update");
+        assertThrows(TaskVersionException.class, () -> taskService.updateTask(taskId, bugDto));
+        assertEquals("Version", taskService.fetchTaskById(taskId).getTitle());
+
+        // a category switch moves the version as well
+        FeatureDto featureDto = featureDto();
+        featureDto.setVersion(version + 1);
+        taskService.updateTask(taskId, featureDto);
+        assertEquals(version + 2, taskService.fetchTaskVersion(taskId));
+    }
+
+    private Integer featureVersion() {
+        return jdbcTemplate.queryForObject("SELECT feature_version FROM task WHERE id = ?", Integer.class, taskId);
+    }
+
+    private BugDto bugDto(String title) {
+        BugDto bugDto = new BugDto();
+        fill(bugDto, title);
+        bugDto.setCategory(0);
+        bugDto.setSeverity(1);
+        bugDto.setStepsToReproduce("steps");
+        return bugDto;
+    }
+
+    private FeatureDto featureDto() {
+        FeatureDto featureDto = new FeatureDto();
+        fill(featureDto, "Now a feature");
+        featureDto.setCategory(1);
+        featureDto.setBusinessValue("value");
+        featureDto.setDeadline(LocalDate.now().plusDays(7).format(DateTimeFormatter.ofPattern("yyyy/MM/dd")));
+        return featureDto;
+    }
+
+    private void fill(TaskDto taskDto, String title) {
+        taskDto.setTitle(title);
+        taskDto.setDescription("description");
+        taskDto.setUserId(users.getId());
+        taskDto.setStatus(0);
+    }
+}
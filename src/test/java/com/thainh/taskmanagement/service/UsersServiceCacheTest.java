@@ -0,0 +1,71 @@
+package com.thainh.taskmanagement.service;
+
+import com.thainh.taskmanagement.dto.UsersDto;
+import com.thainh.taskmanagement.entity.Users;
+import com.thainh.taskmanagement.repository.UsersRepository;
+import com.thainh.taskmanagement.utils.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UsersServiceCacheTest {
+
+    @Autowired
+    private IUsersService usersService;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = cacheManager.getCache(Constants.USER_EXISTS_CACHE);
+        cache.clear();
+    }
+
+    @Test
+    @DisplayName("Unknown user is cached and evicted when a user is created")
+    public void testUnknownUserCached() {
+        Long unknownId = Long.MAX_VALUE;
+        assertFalse(usersRepository.existsById(unknownId));
+        assertEquals(Boolean.FALSE, cache.get(unknownId, Boolean.class));
+
+        Users users = createUser();
+        try {
+            assertNull(cache.get(unknownId));
+        } finally {
+            usersService.deleteUser(users.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Existing user is cached and evicted when the user is deleted")
+    public void testExistingUserCached() {
+        Users users = createUser();
+        assertTrue(usersRepository.existsById(users.getId()));
+        assertEquals(Boolean.TRUE, cache.get(users.getId(), Boolean.class));
+
+        usersService.deleteUser(users.getId());
+        assertNull(cache.get(users.getId()));
+        assertFalse(usersRepository.existsById(users.getId()));
+    }
+
+    private Users createUser() {
+        UsersDto usersDto = new UsersDto();
+        usersDto.setUsername("cache" + System.nanoTime());
+        usersDto.setFullName("Cache Test");
+        usersService.createUser(usersDto);
+        return usersRepository.findByUsername(usersDto.getUsername()).orElseThrow();
+    }
+}